@@ -23,7 +23,10 @@ import androidx.annotation.NonNull;
 import androidx.work.Worker;
 import androidx.work.WorkerParameters;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 import m.co.rh.id.a_flash_deck.ai.model.AiGeneratedCard;
 import m.co.rh.id.a_flash_deck.ai.model.AiGeneratedDeck;
@@ -32,6 +35,7 @@ import m.co.rh.id.a_flash_deck.base.component.IAppNotificationHandler;
 import m.co.rh.id.a_flash_deck.base.dao.DeckDao;
 import m.co.rh.id.a_flash_deck.base.entity.Card;
 import m.co.rh.id.a_flash_deck.base.entity.Deck;
+import m.co.rh.id.a_flash_deck.base.model.DeckModel;
 import m.co.rh.id.a_flash_deck.base.provider.notifier.DeckChangeNotifier;
 import m.co.rh.id.alogger.ILogger;
 import m.co.rh.id.aprovider.Provider;
@@ -54,21 +58,22 @@ public abstract class BaseGenerateDeckWorker extends Worker {
         Deck deck = new Deck();
         deck.name = aiDeck.deckName;
         deck.createdDateTime = new Date();
-        deck.updatedDateTime = new Date();
-        deckDao.insertDeck(deck);
-        deckChangeNotifier.deckAdded(deck);
+        deck.updatedDateTime = deck.createdDateTime;
 
+        List<Card> cardList = new ArrayList<>(aiDeck.cards.size());
         int ordinal = 0;
         for (AiGeneratedCard aiCard : aiDeck.cards) {
             Card card = new Card();
-            card.deckId = deck.id;
             card.ordinal = ordinal++;
             card.question = aiCard.question;
             card.answer = aiCard.answer;
             card.isReversibleQA = false;
-            deckDao.insertCard(card);
-            deckChangeNotifier.cardAdded(card);
+            cardList.add(card);
         }
+        DeckModel deckModel = new DeckModel(deck, cardList);
+        deckDao.importDecks(Collections.singletonList(deckModel));
+        deckChangeNotifier.deckAdded(deck);
+        deckChangeNotifier.cardsAdded(deckModel.getCardList());
 
         return deck;
     }
@@ -50,11 +50,13 @@ import m.co.rh.id.a_flash_deck.app.provider.command.ExportImportCmd;
 import m.co.rh.id.a_flash_deck.app.provider.component.AnkiExporter;
 import m.co.rh.id.a_flash_deck.app.provider.component.AnkiImporter;
 import m.co.rh.id.a_flash_deck.app.util.provider.TestDatabaseProviderModule;
+import m.co.rh.id.a_flash_deck.base.component.ThumbnailGenerator;
 import m.co.rh.id.a_flash_deck.base.dao.DeckDao;
 import m.co.rh.id.a_flash_deck.base.entity.Card;
 import m.co.rh.id.a_flash_deck.base.entity.Deck;
 import m.co.rh.id.a_flash_deck.base.model.DeckModel;
 import m.co.rh.id.a_flash_deck.base.provider.FileHelper;
+import m.co.rh.id.a_flash_deck.base.provider.notifier.DeckChangeNotifier;
 import m.co.rh.id.alogger.AndroidLogger;
 import m.co.rh.id.alogger.ILogger;
 import m.co.rh.id.aprovider.Provider;
@@ -82,6 +84,8 @@ public class ExportImportCmdTest {
                 providerRegistry.register(ExecutorService.class, Executors::newSingleThreadExecutor);
                 providerRegistry.register(ILogger.class, () -> new AndroidLogger(ILogger.VERBOSE));
                 providerRegistry.register(FileHelper.class, () -> new FileHelper(provider));
+                providerRegistry.register(DeckChangeNotifier.class, DeckChangeNotifier::new);
+                providerRegistry.registerLazy(ThumbnailGenerator.class, () -> new ThumbnailGenerator(provider));
                 providerRegistry.registerLazy(AnkiImporter.class, () -> new AnkiImporter(provider));
                 providerRegistry.registerLazy(AnkiExporter.class, () -> new AnkiExporter(provider));
             }
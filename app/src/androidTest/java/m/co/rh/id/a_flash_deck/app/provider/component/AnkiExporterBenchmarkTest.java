@@ -0,0 +1,140 @@
+/*
+ *     Copyright (C) 2021-2026 Ruby Hartono
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package m.co.rh.id.a_flash_deck.app.provider.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipFile;
+
+import m.co.rh.id.a_flash_deck.app.util.provider.TestDatabaseProviderModule;
+import m.co.rh.id.a_flash_deck.base.dao.DeckDao;
+import m.co.rh.id.a_flash_deck.base.entity.Card;
+import m.co.rh.id.a_flash_deck.base.entity.Deck;
+import m.co.rh.id.a_flash_deck.base.model.DeckModel;
+import m.co.rh.id.a_flash_deck.base.provider.FileHelper;
+import m.co.rh.id.alogger.AndroidLogger;
+import m.co.rh.id.alogger.ILogger;
+import m.co.rh.id.aprovider.Provider;
+import m.co.rh.id.aprovider.ProviderModule;
+import m.co.rh.id.aprovider.ProviderRegistry;
+
+/**
+ * Manual benchmark, export a synthetic 20k-card deck that references 10k images.
+ * Elapsed time is only printed to logcat with tag {@link #TAG}, compare it between builds;
+ * the assertions only check that every image is exported once.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AnkiExporterBenchmarkTest {
+    private static final String TAG = "AnkiExporterBenchmark";
+    private static final String DBNAME = AnkiExporterBenchmarkTest.class.getName() + "-testDb";
+    private static final int CARD_COUNT = 20_000;
+    private static final int IMAGE_COUNT = 10_000;
+
+    private Provider testProvider;
+    private FileHelper fileHelper;
+    private DeckDao deckDao;
+
+    @Before
+    public void beforeTest() {
+        Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        testProvider = Provider.createProvider(appContext, new ProviderModule() {
+            @Override
+            public void provides(ProviderRegistry providerRegistry, Provider provider) {
+                providerRegistry.registerModule(new TestDatabaseProviderModule(DBNAME));
+                providerRegistry.register(ExecutorService.class, Executors::newSingleThreadExecutor);
+                providerRegistry.register(ILogger.class, () -> new AndroidLogger(ILogger.VERBOSE));
+                providerRegistry.register(FileHelper.class, () -> new FileHelper(provider));
+            }
+
+            @Override
+            public void dispose(Provider provider) {
+
+            }
+        });
+
+        fileHelper = testProvider.get(FileHelper.class);
+        deckDao = testProvider.get(DeckDao.class);
+    }
+
+    @After
+    public void afterTest() {
+        for (int i = 0; i < IMAGE_COUNT; i++) {
+            fileHelper.deleteCardQuestionImage(imageName(i));
+        }
+        Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        testProvider.dispose();
+        appContext.deleteDatabase(DBNAME);
+    }
+
+    @Test
+    public void exportLargeDeck_resolvesEachMediaOnce() throws IOException {
+        byte[] imageBytes = new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xD9};
+        for (int i = 0; i < IMAGE_COUNT; i++) {
+            try (FileOutputStream fos = new FileOutputStream(fileHelper.getCardQuestionImage(imageName(i)))) {
+                fos.write(imageBytes);
+            }
+        }
+
+        Deck deck = AnkiTestDataHelper.createTestDeck("Benchmark");
+        List<Card> cardList = new ArrayList<>(CARD_COUNT);
+        for (int i = 0; i < CARD_COUNT; i++) {
+            Card card = AnkiTestDataHelper.createTestCard(null, i, "Question " + i, "Answer " + i);
+            card.questionImage = imageName(i % IMAGE_COUNT);
+            cardList.add(card);
+        }
+        deckDao.importDecks(Collections.singletonList(new DeckModel(deck, cardList)));
+
+        AnkiExporter exporter = new AnkiExporter(testProvider);
+        long start = System.nanoTime();
+        File apkgFile = exporter.exportApkg(new ArrayList<>(Collections.singletonList(deck)));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        Log.i(TAG, "exported " + CARD_COUNT + " cards with " + IMAGE_COUNT + " images in " + elapsedMillis + " ms");
+
+        assertTrue(apkgFile.exists());
+        try (ZipFile zipFile = new ZipFile(apkgFile)) {
+            // collection.anki21 and media json plus one entry per distinct image
+            assertEquals(IMAGE_COUNT + 2, zipFile.size());
+        } finally {
+            apkgFile.delete();
+        }
+    }
+
+    private static String imageName(int index) {
+        return "benchmark_" + index + ".jpg";
+    }
+}
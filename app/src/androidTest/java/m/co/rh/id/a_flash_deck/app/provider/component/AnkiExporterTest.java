@@ -46,6 +46,7 @@ import m.co.rh.id.aprovider.Provider;
 import m.co.rh.id.aprovider.ProviderModule;
 import m.co.rh.id.aprovider.ProviderRegistry;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -220,6 +221,39 @@ public class AnkiExporterTest {
         validateMediaInApkg(apkgFile, 1);
     }
 
+    /**
+     * Tests that already compressed media is stored without deflating it again,
+     * while the collection database stays deflated.
+     */
+    @Test
+    public void exportDeckWithImages_storesCompressedMediaUncompressed() throws IOException {
+        Deck deck = AnkiTestDataHelper.createTestDeck("Deck with Stored Media");
+        deckDao.insertDeck(deck);
+
+        File testImage = AnkiTestDataHelper.createTestImageFile(tempDir, "test_image.jpg");
+        String imageName = fileHelper.createCardQuestionImage(testImage, "test_image.jpg").getName();
+        File testVoice = AnkiTestDataHelper.createTestAudioFile(tempDir, "test_audio.mp3");
+        String voiceName = fileHelper.createCardAnswerVoice(testVoice, "test_audio.mp3").getName();
+
+        Card card = AnkiTestDataHelper.createTestCardWithImages(
+            deck.id, 1, "What is this?", "An image",
+            imageName, null
+        );
+        card.answerVoice = voiceName;
+        deckDao.insertCard(card);
+
+        AnkiExporter exporter = new AnkiExporter(testProvider);
+        File apkgFile = exporter.exportApkg(new ArrayList<>(List.of(deck)));
+
+        validateApkgStructure(apkgFile);
+        validateMediaInApkg(apkgFile, 2);
+        try (ZipFile zipFile = new ZipFile(apkgFile)) {
+            assertEquals(java.util.zip.ZipEntry.DEFLATED, zipFile.getEntry("collection.anki21").getMethod());
+            assertEquals(java.util.zip.ZipEntry.STORED, zipFile.getEntry("0").getMethod());
+            assertEquals(java.util.zip.ZipEntry.STORED, zipFile.getEntry("1").getMethod());
+        }
+    }
+
     /**
      * Validates that APKG ZIP contains required entries.
      * 
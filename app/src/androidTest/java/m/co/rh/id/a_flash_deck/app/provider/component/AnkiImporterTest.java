@@ -35,6 +35,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import m.co.rh.id.a_flash_deck.app.util.provider.TestDatabaseProviderModule;
+import m.co.rh.id.a_flash_deck.base.component.ThumbnailGenerator;
 import m.co.rh.id.a_flash_deck.base.dao.DeckDao;
 import m.co.rh.id.a_flash_deck.base.entity.Card;
 import m.co.rh.id.a_flash_deck.base.entity.Deck;
@@ -92,6 +93,7 @@ public class AnkiImporterTest {
                 providerRegistry.register(ExecutorService.class, Executors::newSingleThreadExecutor);
                 providerRegistry.register(ILogger.class, () -> new AndroidLogger(ILogger.VERBOSE));
                 providerRegistry.register(FileHelper.class, () -> new FileHelper(provider));
+                providerRegistry.registerLazy(ThumbnailGenerator.class, () -> new ThumbnailGenerator(provider));
             }
 
             @Override
@@ -212,6 +214,48 @@ public class AnkiImporterTest {
         assertNotNull(importedCard.answerImage);
     }
 
+    /**
+     * Tests importing a deck where several cards reference the same image.
+     *
+     * <p>The shared media entry is copied once and every card points to the same file.</p>
+     */
+    @Test
+    public void importDeck_sharedImage_copiedOnce() throws IOException {
+        AnkiExporter exporter = new AnkiExporter(testProvider);
+        AnkiImporter importer = new AnkiImporter(testProvider);
+
+        Deck deck = AnkiTestDataHelper.createTestDeck("Deck with Shared Image");
+        deckDao.insertDeck(deck);
+
+        File testImage = AnkiTestDataHelper.createTestImageFile(tempDir, "shared_image.jpg");
+        String imageName = fileHelper.createCardQuestionImage(testImage, "shared_image.jpg").getName();
+
+        for (int i = 1; i <= 3; i++) {
+            Card card = AnkiTestDataHelper.createTestCardWithImages(
+                    deck.id, i, "Question " + i, "Answer " + i,
+                    imageName, null
+            );
+            deckDao.insertCard(card);
+        }
+
+        File apkgFile = exporter.exportApkg(new ArrayList<>(List.of(deck)));
+        assertNotNull(apkgFile);
+
+        deckDao.deleteDeck(deck);
+
+        List<DeckModel> imported = importer.importApkg(apkgFile);
+        assertEquals(1, imported.size());
+
+        List<Card> importedCards = imported.get(0).getCardList();
+        assertEquals(3, importedCards.size());
+        String importedImage = importedCards.get(0).questionImage;
+        assertNotNull(importedImage);
+        for (Card importedCard : importedCards) {
+            assertEquals(importedImage, importedCard.questionImage);
+        }
+        assertTrue(fileHelper.getCardQuestionImage(importedImage).exists());
+    }
+
     /**
      * Tests importing a deck with question and answer voice recordings.
      * 
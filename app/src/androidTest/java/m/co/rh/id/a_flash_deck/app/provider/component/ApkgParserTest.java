@@ -168,32 +168,6 @@ public class ApkgParserTest {
         }
     }
 
-    /**
-     * Tests extracting media files from APKG.
-     * 
-     * <p>This test verifies that:</p>
-     * <ul>
-     *   <li>Media files with numeric names are extracted</li>
-     *   <li>Non-numeric files are ignored</li>
-     *   <li>Extracted files are mapped by their numeric names</li>
-     * </ul>
-     */
-    @Test
-    public void extractMediaFiles_extractsNumericFiles() throws IOException {
-        File apkgFile = createTestApkgWithMedia();
-
-        File extractDir = new File(tempDir, "extract_media");
-        extractDir.mkdirs();
-
-        Map<String, File> mediaFiles = ApkgParser.extractMediaFiles(apkgFile, extractDir);
-
-        assertEquals(2, mediaFiles.size());
-        assertTrue(mediaFiles.containsKey("0"));
-        assertTrue(mediaFiles.containsKey("1"));
-        assertTrue(mediaFiles.get("0").exists());
-        assertTrue(mediaFiles.get("1").exists());
-    }
-
     /**
      * Tests parsing media JSON from APKG.
      * 
@@ -337,6 +311,43 @@ public class ApkgParserTest {
         db.close();
     }
 
+    /**
+     * Tests reading cards when note ID list exceeds SQLite host parameter limit.
+     * 
+     * <p>This test verifies that note IDs are queried in chunks and every card is passed to the consumer.</p>
+     */
+    @Test
+    public void readCards_manyNoteIds_streamsAllCards() throws Exception {
+        File apkgFile = createTestApkgWithCards();
+
+        File extractDir = new File(tempDir, "read_cards_many");
+        extractDir.mkdirs();
+
+        android.database.sqlite.SQLiteDatabase db = ApkgParser.extractAndReadDatabase(apkgFile, extractDir);
+
+        List<AnkiNotetype> notetypes = ApkgParser.readNotetypes(db);
+        List<AnkiNote> notes = ApkgParser.readNotes(db, notetypes.get(0).id);
+        assertTrue(notes.size() > 0);
+
+        // pad with ids that do not exist so the real ids land in the last chunk
+        List<Long> noteIds = new ArrayList<>();
+        for (long i = 0; i < ApkgParser.MAX_QUERY_ARGS * 2L + 1; i++) {
+            noteIds.add(-1 - i);
+        }
+        for (AnkiNote note : notes) {
+            noteIds.add(note.id);
+        }
+
+        List<AnkiCard> cards = new ArrayList<>();
+        ApkgParser.readCards(db, noteIds, cards::add);
+
+        assertEquals(ApkgParser.readCards(db, noteIds.subList(noteIds.size() - notes.size(), noteIds.size())).size(),
+                cards.size());
+        assertTrue(cards.size() >= notes.size());
+
+        db.close();
+    }
+
     /**
      * Tests reading decks from Anki database.
      * 
@@ -490,36 +501,6 @@ public class ApkgParserTest {
         return apkgFile;
     }
 
-    /**
-     * Creates a test APKG file with media files.
-     * 
-     * <p>Creates a ZIP file with numeric-named files representing media.</p>
-     */
-    private File createTestApkgWithMedia() throws IOException {
-        File apkgFile = new File(tempDir, "with_media.apkg");
-        java.util.zip.ZipOutputStream zos = new java.util.zip.ZipOutputStream(new FileOutputStream(apkgFile));
-
-        byte[] dummyData = new byte[]{0, 1, 2, 3};
-        
-        java.util.zip.ZipEntry entry0 = new java.util.zip.ZipEntry("0");
-        zos.putNextEntry(entry0);
-        zos.write(dummyData);
-        zos.closeEntry();
-
-        java.util.zip.ZipEntry entry1 = new java.util.zip.ZipEntry("1");
-        zos.putNextEntry(entry1);
-        zos.write(dummyData);
-        zos.closeEntry();
-
-        java.util.zip.ZipEntry entryOther = new java.util.zip.ZipEntry("some_file.txt");
-        zos.putNextEntry(entryOther);
-        zos.write(dummyData);
-        zos.closeEntry();
-
-        zos.close();
-        return apkgFile;
-    }
-
     /**
      * Creates a test APKG file with media JSON mapping.
      * 
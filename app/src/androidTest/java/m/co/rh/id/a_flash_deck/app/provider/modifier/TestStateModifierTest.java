@@ -0,0 +1,204 @@
+/*
+ *     Copyright (C) 2021-2026 Ruby Hartono
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package m.co.rh.id.a_flash_deck.app.provider.modifier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import m.co.rh.id.a_flash_deck.app.util.provider.TestDatabaseProviderModule;
+import m.co.rh.id.a_flash_deck.base.dao.DeckDao;
+import m.co.rh.id.a_flash_deck.base.dao.TestDao;
+import m.co.rh.id.a_flash_deck.base.entity.Card;
+import m.co.rh.id.a_flash_deck.base.entity.Deck;
+import m.co.rh.id.a_flash_deck.base.model.DeckModel;
+import m.co.rh.id.a_flash_deck.base.model.TestState;
+import m.co.rh.id.a_flash_deck.base.provider.notifier.TestChangeNotifier;
+import m.co.rh.id.alogger.AndroidLogger;
+import m.co.rh.id.alogger.ILogger;
+import m.co.rh.id.aprovider.Provider;
+import m.co.rh.id.aprovider.ProviderModule;
+import m.co.rh.id.aprovider.ProviderRegistry;
+
+@RunWith(AndroidJUnit4.class)
+public class TestStateModifierTest {
+    private static final String DBNAME = TestStateModifierTest.class.getName() + "-testDb";
+    private static final int CARD_COUNT = 2_000;
+
+    private Provider testProvider;
+    private TestStateModifier testStateModifier;
+    private Deck deck;
+
+    @Before
+    public void beforeTest() {
+        Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        testProvider = Provider.createProvider(appContext, new ProviderModule() {
+            @Override
+            public void provides(ProviderRegistry providerRegistry, Provider provider) {
+                providerRegistry.registerModule(new TestDatabaseProviderModule(DBNAME));
+                providerRegistry.register(ExecutorService.class, Executors::newSingleThreadExecutor);
+                providerRegistry.register(ILogger.class, () -> new AndroidLogger(ILogger.VERBOSE));
+                providerRegistry.register(TestChangeNotifier.class, TestChangeNotifier::new);
+                providerRegistry.registerLazy(TestStateModifier.class, () -> new TestStateModifier(provider));
+            }
+
+            @Override
+            public void dispose(Provider provider) {
+
+            }
+        });
+        testStateModifier = testProvider.get(TestStateModifier.class);
+
+        deck = new Deck();
+        deck.name = "Test deck";
+        List<Card> cardList = new ArrayList<>(CARD_COUNT);
+        for (int i = 0; i < CARD_COUNT; i++) {
+            Card card = new Card();
+            card.ordinal = i;
+            card.question = "Question " + i;
+            card.answer = "Answer " + i;
+            card.isReversibleQA = true;
+            cardList.add(card);
+        }
+        testProvider.get(DeckDao.class).importDecks(Collections.singletonList(new DeckModel(deck, cardList)));
+    }
+
+    @After
+    public void afterTest() {
+        Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        testProvider.dispose();
+        appContext.deleteDatabase(DBNAME);
+    }
+
+    @Test
+    public void navigateAndReload_keepsOrderIndexAndReversedFlags() {
+        TestState testState = testStateModifier.startTest(Collections.singletonList(deck)).blockingGet();
+        List<Long> startedCardIds = cardIds(testState);
+        List<Boolean> startedReversed = reversedFlags(testState);
+        testStateModifier.nextCard(testState).blockingGet();
+        testStateModifier.nextCard(testState).blockingGet();
+        testStateModifier.previousCard(testState).blockingGet();
+
+        String stateFileLocation = testProvider.get(TestDao.class).getCurrentTest().stateFileLocation;
+        // ids, index and a bit per card, no card content
+        assertTrue(new File(stateFileLocation).length() < CARD_COUNT * 9L + 64);
+
+        TestState loaded = testStateModifier.getActiveTest().blockingGet().get();
+        assertEquals(1, loaded.getCurrentCardIndex());
+        assertEquals(startedCardIds, cardIds(loaded));
+        assertEquals(startedReversed, reversedFlags(loaded));
+        Card current = loaded.currentCard();
+        assertEquals(startedCardIds.get(1), current.id);
+        assertEquals(startedReversed.get(1), current.isReversed);
+        // only cards around current index are hydrated
+        assertTrue(loaded.getWindowCards().size() <= TestState.WINDOW_RADIUS * 2 + 1);
+
+        testStateModifier.stopTest(loaded).blockingGet();
+    }
+
+    @Test
+    public void deletedCardInWindow_isDroppedFromTest() {
+        TestState testState = testStateModifier.startTest(Collections.singletonList(deck)).blockingGet();
+        DeckDao deckDao = testProvider.get(DeckDao.class);
+        Card nextCard = deckDao.getCardByCardId(testState.getCardId(1));
+        deckDao.deleteCard(nextCard);
+
+        testStateModifier.nextCard(testState).blockingGet();
+        assertEquals(CARD_COUNT - 1, testState.getTotalCards());
+        assertTrue(testState.currentCard() != null);
+
+        TestState loaded = testStateModifier.getActiveTest().blockingGet().get();
+        assertEquals(cardIds(testState), cardIds(loaded));
+        assertEquals(testState.getCurrentCardIndex(), loaded.getCurrentCardIndex());
+
+        testStateModifier.stopTest(loaded).blockingGet();
+    }
+
+    /**
+     * legacy_test_state.bin is a TestState of card 1, 2 and 3 with card 2 reversed and current index 1,
+     * written with java serialization by the app version before the compact state file
+     */
+    @Test
+    public void legacyStateFile_isConvertedToCompactState() throws IOException {
+        Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        File stateFile = new File(appContext.getCacheDir(), "legacy_test_state.bin");
+        try (InputStream inputStream = InstrumentationRegistry.getInstrumentation().getContext()
+                .getAssets().open("legacy_test_state.bin");
+             OutputStream outputStream = new FileOutputStream(stateFile)) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+        }
+        m.co.rh.id.a_flash_deck.base.entity.Test test = new m.co.rh.id.a_flash_deck.base.entity.Test();
+        test.stateFileLocation = stateFile.getAbsolutePath();
+        testProvider.get(TestDao.class).insertTest(test);
+
+        TestState loaded = testStateModifier.getActiveTest().blockingGet().get();
+        assertEquals(Arrays.asList(1L, 2L, 3L), cardIds(loaded));
+        assertEquals(Arrays.asList(false, true, false), reversedFlags(loaded));
+        assertEquals(1, loaded.getCurrentCardIndex());
+        assertEquals(Long.valueOf(2), loaded.currentCard().id);
+        assertEquals("Question 1", loaded.currentCard().question);
+
+        // converted file loads without the legacy path
+        TestState reloaded = testStateModifier.getActiveTest().blockingGet().get();
+        assertEquals(cardIds(loaded), cardIds(reloaded));
+        assertEquals(1, reloaded.getCurrentCardIndex());
+
+        testStateModifier.stopTest(reloaded).blockingGet();
+    }
+
+    private static List<Long> cardIds(TestState testState) {
+        List<Long> cardIds = new ArrayList<>(testState.getTotalCards());
+        for (int i = 0; i < testState.getTotalCards(); i++) {
+            cardIds.add(testState.getCardId(i));
+        }
+        return cardIds;
+    }
+
+    private static List<Boolean> reversedFlags(TestState testState) {
+        List<Boolean> reversedFlags = new ArrayList<>(testState.getTotalCards());
+        for (int i = 0; i < testState.getTotalCards(); i++) {
+            reversedFlags.add(testState.isReversed(i));
+        }
+        return reversedFlags;
+    }
+}
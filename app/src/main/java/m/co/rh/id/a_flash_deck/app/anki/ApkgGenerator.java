@@ -23,16 +23,11 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Random;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.zip.Deflater;
 
 public class ApkgGenerator {
     private static final String TAG = ApkgGenerator.class.getName();
@@ -300,6 +295,14 @@ public class ApkgGenerator {
     }
 
     public static File generateApkg(File dbFile, Map<String, File> mediaFiles, String mediaJson, String outputFileName) throws IOException {
+        return generateApkg(dbFile, mediaFiles, mediaJson, outputFileName, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param collectionCompressionLevel deflate level for collection.anki21, see {@link ApkgWriter#setCollectionCompressionLevel(int)}
+     */
+    public static File generateApkg(File dbFile, Map<String, File> mediaFiles, String mediaJson, String outputFileName,
+                                    int collectionCompressionLevel) throws IOException {
         if (dbFile == null) {
             throw new IllegalArgumentException("Database file cannot be null");
         }
@@ -310,46 +313,9 @@ public class ApkgGenerator {
             throw new IllegalArgumentException("Media JSON cannot be null");
         }
         File outputFile = new File(new File(dbFile.getParent()).getParentFile(), outputFileName);
-        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(outputFile))) {
-            ZipEntry dbEntry = new ZipEntry("collection.anki21");
-            zos.putNextEntry(dbEntry);
-            try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(dbFile))) {
-                byte[] buffer = new byte[4096];
-                int bytesRead;
-                while ((bytesRead = bis.read(buffer)) != -1) {
-                    zos.write(buffer, 0, bytesRead);
-                }
-            }
-            zos.closeEntry();
-
-            ZipEntry db2Entry = new ZipEntry("collection.anki2");
-            zos.putNextEntry(db2Entry);
-            zos.closeEntry();
-
-            ZipEntry mediaEntry = new ZipEntry("media");
-            zos.putNextEntry(mediaEntry);
-            zos.write(mediaJson.getBytes(StandardCharsets.UTF_8));
-            zos.closeEntry();
-
-            if (mediaFiles != null) {
-                for (Map.Entry<String, File> entry : mediaFiles.entrySet()) {
-                    String key = entry.getKey();
-                    File file = entry.getValue();
-                    if (key != null && file != null && file.exists()) {
-                        ZipEntry mediaFileEntry = new ZipEntry(key);
-                        zos.putNextEntry(mediaFileEntry);
-                        try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(file))) {
-                            byte[] buffer = new byte[4096];
-                            int bytesRead;
-                            while ((bytesRead = bis.read(buffer)) != -1) {
-                                zos.write(buffer, 0, bytesRead);
-                            }
-                        }
-                        zos.closeEntry();
-                    }
-                }
-            }
-        }
+        new ApkgWriter()
+                .setCollectionCompressionLevel(collectionCompressionLevel)
+                .write(dbFile, mediaFiles, mediaJson, outputFile);
         return outputFile;
     }
 }
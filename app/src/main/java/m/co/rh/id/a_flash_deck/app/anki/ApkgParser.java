@@ -39,58 +39,60 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 public class ApkgParser {
     private static final String TAG = ApkgParser.class.getName();
+    /**
+     * Max bind arguments per query, SQLite before 3.32 only allows 999 host parameters
+     */
+    public static final int MAX_QUERY_ARGS = 500;
 
     public static SQLiteDatabase extractAndReadDatabase(File apkgFile, File tempDir) throws IOException {
         try (ZipFile zipFile = new ZipFile(apkgFile)) {
-            ZipEntry dbEntry = zipFile.getEntry("collection.anki21");
-            if (dbEntry == null) {
-                throw new IOException("collection.anki21 not found in APKG file");
-            }
-            File dbFile = new File(tempDir, "collection.anki21");
-            try (InputStream is = zipFile.getInputStream(dbEntry);
-                 BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(dbFile))) {
-                byte[] buffer = new byte[4096];
-                int bytesRead;
-                while ((bytesRead = is.read(buffer)) != -1) {
-                    bos.write(buffer, 0, bytesRead);
-                }
-            }
-            SQLiteDatabase db = SQLiteDatabase.openDatabase(dbFile.getAbsolutePath(), null, SQLiteDatabase.OPEN_READONLY);
-            return db;
+            return extractAndReadDatabase(zipFile, tempDir);
         }
     }
 
-    public static Map<String, File> extractMediaFiles(File apkgFile, File tempDir) throws IOException {
-        Map<String, File> mediaFiles = new HashMap<>();
-        try (ZipFile zipFile = new ZipFile(apkgFile)) {
-            Enumeration<? extends ZipEntry> entries = zipFile.entries();
-            while (entries.hasMoreElements()) {
-                ZipEntry entry = entries.nextElement();
-                String name = entry.getName();
-                if (name.matches("^\\d+$") && name.indexOf('/') < 0 && name.indexOf('\\') < 0) {
-                    File mediaFile = new File(tempDir, name);
-                    try (InputStream is = zipFile.getInputStream(entry);
-                         BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(mediaFile))) {
-                        byte[] buffer = new byte[4096];
-                        int bytesRead;
-                        while ((bytesRead = is.read(buffer)) != -1) {
-                            bos.write(buffer, 0, bytesRead);
-                        }
-                    }
-                    mediaFiles.put(name, mediaFile);
-                }
+    /**
+     * Extract collection database from an already opened APKG zip, so the same zip can be
+     * reused to read media entries afterwards
+     */
+    public static SQLiteDatabase extractAndReadDatabase(ZipFile zipFile, File tempDir) throws IOException {
+        ZipEntry dbEntry = zipFile.getEntry("collection.anki21");
+        if (dbEntry == null) {
+            throw new IOException("collection.anki21 not found in APKG file");
+        }
+        File dbFile = new File(tempDir, "collection.anki21");
+        try (InputStream is = zipFile.getInputStream(dbEntry);
+             BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(dbFile))) {
+            byte[] buffer = new byte[4096];
+            int bytesRead;
+            while ((bytesRead = is.read(buffer)) != -1) {
+                bos.write(buffer, 0, bytesRead);
             }
         }
-        return mediaFiles;
+        SQLiteDatabase db = SQLiteDatabase.openDatabase(dbFile.getAbsolutePath(), null, SQLiteDatabase.OPEN_READONLY);
+        return db;
+    }
+
+    /**
+     * @return media zip entry for the numeric media key, or null if the key is not a media entry
+     */
+    public static ZipEntry getMediaEntry(ZipFile zipFile, String mediaKey) {
+        if (mediaKey == null || !isMediaEntryName(mediaKey)) {
+            return null;
+        }
+        return zipFile.getEntry(mediaKey);
+    }
+
+    private static boolean isMediaEntryName(String name) {
+        return name.matches("^\\d+$") && name.indexOf('/') < 0 && name.indexOf('\\') < 0;
     }
 
     public static Map<String, String> parseMediaJson(ZipFile zipFile) throws IOException, JSONException {
@@ -119,6 +121,14 @@ public class ApkgParser {
 
     public static List<AnkiNote> readNotes(SQLiteDatabase db, long notetypeId) {
         List<AnkiNote> notes = new ArrayList<>();
+        readNotes(db, notetypeId, notes::add);
+        return notes;
+    }
+
+    /**
+     * Stream notes of a notetype to the consumer one row at a time
+     */
+    public static void readNotes(SQLiteDatabase db, long notetypeId, Consumer<AnkiNote> noteConsumer) {
         String[] columns = {"id", "guid", "mid", "mod", "usn", "tags", "flds", "sfld", "csum", "flags", "data"};
         String selection = "mid = ?";
         String[] selectionArgs = {String.valueOf(notetypeId)};
@@ -137,60 +147,84 @@ public class ApkgParser {
                 note.csum = cursor.getInt(8);
                 note.flags = cursor.getLong(9);
                 note.data = cursor.isNull(10) ? "" : cursor.getString(10);
-                notes.add(note);
+                noteConsumer.accept(note);
             }
         } finally {
             cursor.close();
         }
-        return notes;
     }
 
-    public static List<AnkiCard> readCards(SQLiteDatabase db, List<Long> noteIds) {
-        List<AnkiCard> cards = new ArrayList<>();
-        if (noteIds.isEmpty()) {
-            return cards;
-        }
-        String[] columns = {"id", "nid", "did", "ord", "mod", "usn", "type", "queue", "due", "ivl", "factor", "reps", "lapses", "left", "odue", "odid", "flags", "data"};
-        StringBuilder placeholders = new StringBuilder();
-        for (int i = 0; i < noteIds.size(); i++) {
-            if (i > 0) placeholders.append(",");
-            placeholders.append("?");
-        }
-        String selection = "nid IN (" + placeholders + ")";
-        String[] selectionArgs = new String[noteIds.size()];
-        for (int i = 0; i < noteIds.size(); i++) {
-            selectionArgs[i] = String.valueOf(noteIds.get(i));
-        }
-        Cursor cursor = db.query("cards", columns, selection, selectionArgs, null, null, null);
+    public static List<Long> readNoteIds(SQLiteDatabase db, long notetypeId) {
+        List<Long> noteIds = new ArrayList<>();
+        String selection = "mid = ?";
+        String[] selectionArgs = {String.valueOf(notetypeId)};
+        Cursor cursor = db.query("notes", new String[]{"id"}, selection, selectionArgs, null, null, null);
         try {
             while (cursor.moveToNext()) {
-                AnkiCard card = new AnkiCard();
-                card.id = cursor.getLong(0);
-                card.nid = cursor.getLong(1);
-                card.did = cursor.getLong(2);
-                card.ord = cursor.getInt(3);
-                card.mod = cursor.getLong(4);
-                card.usn = cursor.getInt(5);
-                card.type = cursor.getInt(6);
-                card.queue = cursor.getInt(7);
-                card.due = cursor.getInt(8);
-                card.ivl = cursor.getInt(9);
-                card.factor = cursor.getInt(10);
-                card.reps = cursor.getInt(11);
-                card.lapses = cursor.getInt(12);
-                card.left = cursor.getInt(13);
-                card.odue = cursor.getInt(14);
-                card.odid = cursor.getLong(15);
-                card.flags = cursor.getInt(16);
-                card.data = cursor.isNull(17) ? "" : cursor.getString(17);
-                cards.add(card);
+                noteIds.add(cursor.getLong(0));
             }
         } finally {
             cursor.close();
         }
+        return noteIds;
+    }
+
+    public static List<AnkiCard> readCards(SQLiteDatabase db, List<Long> noteIds) {
+        List<AnkiCard> cards = new ArrayList<>();
+        readCards(db, noteIds, cards::add);
         return cards;
     }
 
+    /**
+     * Stream cards that belong to the note ids to the consumer one row at a time.
+     * Note ids are queried in chunks of {@link #MAX_QUERY_ARGS} to stay below SQLite host parameter limit.
+     */
+    public static void readCards(SQLiteDatabase db, List<Long> noteIds, Consumer<AnkiCard> cardConsumer) {
+        if (noteIds.isEmpty()) {
+            return;
+        }
+        String[] columns = {"id", "nid", "did", "ord", "mod", "usn", "type", "queue", "due", "ivl", "factor", "reps", "lapses", "left", "odue", "odid", "flags", "data"};
+        int size = noteIds.size();
+        for (int from = 0; from < size; from += MAX_QUERY_ARGS) {
+            List<Long> chunk = noteIds.subList(from, Math.min(size, from + MAX_QUERY_ARGS));
+            StringBuilder placeholders = new StringBuilder();
+            String[] selectionArgs = new String[chunk.size()];
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) placeholders.append(",");
+                placeholders.append("?");
+                selectionArgs[i] = String.valueOf(chunk.get(i));
+            }
+            String selection = "nid IN (" + placeholders + ")";
+            Cursor cursor = db.query("cards", columns, selection, selectionArgs, null, null, null);
+            try {
+                while (cursor.moveToNext()) {
+                    AnkiCard card = new AnkiCard();
+                    card.id = cursor.getLong(0);
+                    card.nid = cursor.getLong(1);
+                    card.did = cursor.getLong(2);
+                    card.ord = cursor.getInt(3);
+                    card.mod = cursor.getLong(4);
+                    card.usn = cursor.getInt(5);
+                    card.type = cursor.getInt(6);
+                    card.queue = cursor.getInt(7);
+                    card.due = cursor.getInt(8);
+                    card.ivl = cursor.getInt(9);
+                    card.factor = cursor.getInt(10);
+                    card.reps = cursor.getInt(11);
+                    card.lapses = cursor.getInt(12);
+                    card.left = cursor.getInt(13);
+                    card.odue = cursor.getInt(14);
+                    card.odid = cursor.getLong(15);
+                    card.flags = cursor.getInt(16);
+                    card.data = cursor.isNull(17) ? "" : cursor.getString(17);
+                    cardConsumer.accept(card);
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+    }
+
     public static List<AnkiDeck> readDecks(SQLiteDatabase db) throws JSONException {
         List<AnkiDeck> decks = new ArrayList<>();
         Cursor cursor = db.query("decks", null, null, null, null, null, null);
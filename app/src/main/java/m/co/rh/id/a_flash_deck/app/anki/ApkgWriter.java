@@ -0,0 +1,176 @@
+/*
+ *     Copyright (C) 2021-2026 Ruby Hartono
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package m.co.rh.id.a_flash_deck.app.anki;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Write .apkg zip file.
+ * Media that is already compressed (JPEG, PNG, MP3, etc.) is stored as is instead of deflated again,
+ * only the collection database and other media go through the deflater.
+ * Not thread safe, the transfer buffer is reused for every entry.
+ */
+public class ApkgWriter {
+    public static final int TRANSFER_BUFFER_SIZE = 256 * 1024;
+
+    private final ByteBuffer mBuffer;
+    private int mCollectionCompressionLevel;
+
+    public ApkgWriter() {
+        mBuffer = ByteBuffer.allocate(TRANSFER_BUFFER_SIZE);
+        mCollectionCompressionLevel = Deflater.DEFAULT_COMPRESSION;
+    }
+
+    /**
+     * @param level {@link Deflater#DEFAULT_COMPRESSION} or 0-9,
+     *              lower is faster but makes bigger collection entry
+     */
+    public ApkgWriter setCollectionCompressionLevel(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION
+                && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        mCollectionCompressionLevel = level;
+        return this;
+    }
+
+    public void write(File dbFile, Map<String, File> mediaFiles, String mediaJson, File outputFile) throws IOException {
+        try (ZipOutputStream zos = new ZipOutputStream(
+                new BufferedOutputStream(new FileOutputStream(outputFile), TRANSFER_BUFFER_SIZE))) {
+            zos.setLevel(mCollectionCompressionLevel);
+            zos.putNextEntry(new ZipEntry("collection.anki21"));
+            copyFile(dbFile, zos);
+            zos.closeEntry();
+            zos.setLevel(Deflater.DEFAULT_COMPRESSION);
+
+            zos.putNextEntry(new ZipEntry("collection.anki2"));
+            zos.closeEntry();
+
+            zos.putNextEntry(new ZipEntry("media"));
+            zos.write(mediaJson.getBytes(StandardCharsets.UTF_8));
+            zos.closeEntry();
+
+            if (mediaFiles != null) {
+                for (Map.Entry<String, File> entry : mediaFiles.entrySet()) {
+                    String key = entry.getKey();
+                    File file = entry.getValue();
+                    if (key != null && file != null && file.exists()) {
+                        zos.putNextEntry(createMediaEntry(key, file));
+                        copyFile(file, zos);
+                        zos.closeEntry();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sniff the file signature, compressed formats become STORED entry with CRC and size precomputed,
+     * the rest are left to be deflated.
+     */
+    private ZipEntry createMediaEntry(String name, File file) throws IOException {
+        ZipEntry zipEntry = new ZipEntry(name);
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            mBuffer.clear();
+            int read = channel.read(mBuffer);
+            if (read <= 0 || !isCompressedFormat(mBuffer.array(), read)) {
+                return zipEntry;
+            }
+            CRC32 crc32 = new CRC32();
+            long size = 0;
+            while (read > 0) {
+                crc32.update(mBuffer.array(), 0, read);
+                size += read;
+                mBuffer.clear();
+                read = channel.read(mBuffer);
+            }
+            zipEntry.setMethod(ZipEntry.STORED);
+            zipEntry.setSize(size);
+            zipEntry.setCompressedSize(size);
+            zipEntry.setCrc(crc32.getValue());
+        }
+        return zipEntry;
+    }
+
+    private void copyFile(File file, ZipOutputStream zos) throws IOException {
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            mBuffer.clear();
+            int read;
+            while ((read = channel.read(mBuffer)) != -1) {
+                zos.write(mBuffer.array(), 0, read);
+                mBuffer.clear();
+            }
+        }
+    }
+
+    static boolean isCompressedFormat(byte[] header, int length) {
+        if (length < 4) {
+            return false;
+        }
+        int b0 = header[0] & 0xFF;
+        int b1 = header[1] & 0xFF;
+        // JPEG
+        if (b0 == 0xFF && b1 == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return true;
+        }
+        // MP3/AAC frame sync
+        if (b0 == 0xFF && (b1 & 0xE0) == 0xE0) {
+            return true;
+        }
+        if (matchesAt(header, length, 0, new byte[]{(byte) 0x89, 'P', 'N', 'G'})
+                || matchesAt(header, length, 0, new byte[]{'G', 'I', 'F', '8'})
+                || matchesAt(header, length, 0, new byte[]{'I', 'D', '3'})
+                || matchesAt(header, length, 0, new byte[]{'O', 'g', 'g', 'S'})
+                || matchesAt(header, length, 0, new byte[]{'f', 'L', 'a', 'C'})
+                || matchesAt(header, length, 0, new byte[]{0x1A, 0x45, (byte) 0xDF, (byte) 0xA3})
+                || matchesAt(header, length, 0, new byte[]{'#', '!', 'A', 'M', 'R'})) {
+            return true;
+        }
+        // WebP
+        if (matchesAt(header, length, 0, new byte[]{'R', 'I', 'F', 'F'})
+                && matchesAt(header, length, 8, new byte[]{'W', 'E', 'B', 'P'})) {
+            return true;
+        }
+        // MP4/M4A/3GP
+        return matchesAt(header, length, 4, new byte[]{'f', 't', 'y', 'p'});
+    }
+
+    private static boolean matchesAt(byte[] header, int length, int offset, byte[] signature) {
+        if (length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if (header[offset + i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -23,6 +23,7 @@ import m.co.rh.id.a_flash_deck.app.provider.component.AnkiExporter;
 import m.co.rh.id.a_flash_deck.app.provider.component.AnkiImporter;
 import m.co.rh.id.a_flash_deck.app.provider.component.AppNotificationHandler;
 import m.co.rh.id.a_flash_deck.app.provider.component.AppShortcutHandler;
+import m.co.rh.id.a_flash_deck.app.provider.component.DeckCache;
 import m.co.rh.id.a_flash_deck.app.provider.modifier.TestStateModifier;
 import m.co.rh.id.a_flash_deck.ai.provider.AiProviderModule;
 import m.co.rh.id.a_flash_deck.base.provider.BaseProviderModule;
@@ -53,6 +54,7 @@ public class AppProviderModule implements ProviderModule {
         providerRegistry.registerLazy(TestStateModifier.class, () -> new TestStateModifier(provider));
         providerRegistry.registerAsync(AppNotificationHandler.class, () -> new AppNotificationHandler(provider));
         providerRegistry.registerAsync(AppShortcutHandler.class, () -> new AppShortcutHandler(provider));
+        providerRegistry.registerLazy(DeckCache.class, () -> new DeckCache(provider));
         providerRegistry.registerLazy(AnkiImporter.class, () -> new AnkiImporter(provider));
         providerRegistry.registerLazy(AnkiExporter.class, () -> new AnkiExporter(provider));
 
@@ -17,32 +17,47 @@
 
 package m.co.rh.id.a_flash_deck.app.provider.command;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.schedulers.Schedulers;
+import m.co.rh.id.a_flash_deck.app.provider.component.DeckCache;
 import m.co.rh.id.a_flash_deck.base.dao.DeckDao;
 import m.co.rh.id.a_flash_deck.base.entity.Deck;
+import m.co.rh.id.a_flash_deck.base.model.DeckWithCount;
 import m.co.rh.id.aprovider.Provider;
 
 public class DeckQueryCmd {
     private ExecutorService mExecutorService;
     private DeckDao mDeckDao;
+    private DeckCache mDeckCache;
 
     public DeckQueryCmd(Provider provider) {
         mExecutorService = provider.get(ExecutorService.class);
         mDeckDao = provider.get(DeckDao.class);
+        mDeckCache = provider.get(DeckCache.class);
     }
 
-    public Single<Integer> countCards(Deck deck) {
-        return Single.fromCallable(() ->
-                mDeckDao.countCardByDeckId(deck.id))
-                .subscribeOn(Schedulers.from(mExecutorService));
+    /**
+     * @return current card count keyed by deck id, deleted decks are not included
+     */
+    public Single<Map<Long, Integer>> countCardsByDeckIds(Collection<Long> deckIds) {
+        return Single.fromCallable(() -> {
+            Map<Long, Integer> cardCounts = new HashMap<>();
+            if (!deckIds.isEmpty()) {
+                for (DeckWithCount deckWithCount : mDeckDao.findDeckWithCountByIds(new ArrayList<>(deckIds))) {
+                    cardCounts.put(deckWithCount.deck.id, deckWithCount.cardCount);
+                }
+            }
+            return cardCounts;
+        }).subscribeOn(Schedulers.from(mExecutorService));
     }
 
     public Single<Deck> getDeckById(long deckId) {
-        return Single.fromCallable(() ->
-                mDeckDao.getDeckById(deckId))
-                .subscribeOn(Schedulers.from(mExecutorService));
+        return mDeckCache.getDeckById(deckId);
     }
 }
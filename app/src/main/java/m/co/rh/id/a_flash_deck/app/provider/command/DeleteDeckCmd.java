@@ -17,6 +17,7 @@
 
 package m.co.rh.id.a_flash_deck.app.provider.command;
 
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 
 import io.reactivex.rxjava3.core.Single;
@@ -39,8 +40,8 @@ public class DeleteDeckCmd {
 
     public Single<Deck> execute(Deck deck) {
         return Single.fromCallable(() -> {
-            mDeckDao.deleteDeck(deck);
-            mDeckChangeNotifier.deckDeleted(deck);
+            List<Long> deletedCardIds = mDeckDao.deleteDeck(deck);
+            mDeckChangeNotifier.deckDeleted(deck, deletedCardIds);
             return deck;
         }).subscribeOn(Schedulers.from(mExecutorService));
     }
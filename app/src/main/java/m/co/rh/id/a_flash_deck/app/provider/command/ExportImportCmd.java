@@ -19,16 +19,15 @@ package m.co.rh.id.a_flash_deck.app.provider.command;
 
 import android.content.Context;
 import android.net.Uri;
+import android.util.JsonReader;
+import android.util.JsonWriter;
 
 import androidx.annotation.NonNull;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -36,13 +35,21 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Enumeration;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
@@ -53,12 +60,14 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 import m.co.rh.id.a_flash_deck.R;
 import m.co.rh.id.a_flash_deck.app.provider.component.AnkiExporter;
 import m.co.rh.id.a_flash_deck.app.provider.component.AnkiImporter;
+import m.co.rh.id.a_flash_deck.base.component.ThumbnailGenerator;
 import m.co.rh.id.a_flash_deck.base.dao.DeckDao;
 import m.co.rh.id.a_flash_deck.base.entity.Card;
 import m.co.rh.id.a_flash_deck.base.entity.Deck;
 import m.co.rh.id.a_flash_deck.base.exception.ValidationException;
 import m.co.rh.id.a_flash_deck.base.model.DeckModel;
 import m.co.rh.id.a_flash_deck.base.provider.FileHelper;
+import m.co.rh.id.a_flash_deck.base.provider.notifier.DeckChangeNotifier;
 import m.co.rh.id.alogger.ILogger;
 import m.co.rh.id.aprovider.Provider;
 
@@ -69,6 +78,7 @@ public class ExportImportCmd {
     private static final String ZIP_CONTENT_IMAGE_ANSWER_DIR = "media/image/answer/";
     private static final String ZIP_CONTENT_VOICE_QUESTION_DIR = "media/voice/question/";
     private static final String ZIP_CONTENT_VOICE_ANSWER_DIR = "media/voice/answer/";
+    private static final int MEDIA_PREPARE_AHEAD = 8;
 
     protected Context mAppContext;
     protected AnkiImporter mAnkiImporter;
@@ -77,6 +87,8 @@ public class ExportImportCmd {
     protected ILogger mLogger;
     protected DeckDao mDeckDao;
     protected FileHelper mFileHelper;
+    protected ThumbnailGenerator mThumbnailGenerator;
+    protected DeckChangeNotifier mDeckChangeNotifier;
 
     public ExportImportCmd(Provider provider) {
         mAppContext = provider.getContext().getApplicationContext();
@@ -84,6 +96,8 @@ public class ExportImportCmd {
         mLogger = provider.get(ILogger.class);
         mDeckDao = provider.get(DeckDao.class);
         mFileHelper = provider.get(FileHelper.class);
+        mThumbnailGenerator = provider.get(ThumbnailGenerator.class);
+        mDeckChangeNotifier = provider.get(DeckChangeNotifier.class);
         mAnkiImporter = provider.get(AnkiImporter.class);
         mAnkiExporter = provider.get(AnkiExporter.class);
     }
@@ -109,76 +123,14 @@ public class ExportImportCmd {
                     if (!deckList.isEmpty()) {
                         File zipFile = mFileHelper.createTempFile("Decks.zip");
                         try {
-                            List<Card> allCards = mDeckDao.getCardsByDecks(deckList);
-                            Map<Long, List<Card>> cardsByDeckId = new HashMap<>();
-                            for (Card card : allCards) {
-                                cardsByDeckId.computeIfAbsent(card.deckId, k -> new ArrayList<>()).add(card);
-                            }
-                            
                             try (ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(zipFile))) {
                                 ZipEntry jsonZipEntry = new ZipEntry(ZIP_CONTENT_DECKS_JSON);
                                 zipOutputStream.putNextEntry(jsonZipEntry);
-
-                                zipOutputStream.write("[".getBytes(StandardCharsets.UTF_8));
-                                boolean firstDeck = true;
-                                for (Deck deck : deckList) {
-                                    if (!firstDeck) {
-                                        zipOutputStream.write(",".getBytes(StandardCharsets.UTF_8));
-                                    }
-                                    firstDeck = false;
-                                    List<Card> cardList = cardsByDeckId.getOrDefault(deck.id, new ArrayList<>());
-                                    DeckModel deckModel = new DeckModel(deck, cardList);
-                                    zipOutputStream.write(deckModel.toJson().toString().getBytes(StandardCharsets.UTF_8));
-                                }
-                                zipOutputStream.write("]".getBytes(StandardCharsets.UTF_8));
+                                Map<String, File> mediaFiles = new LinkedHashMap<>();
+                                writeDeckModelsJson(deckList, zipOutputStream, mediaFiles);
                                 zipOutputStream.closeEntry();
 
-                                for (Card card : allCards) {
-                                    if (card.questionImage != null) {
-                                        File questionImage = mFileHelper.getCardQuestionImage(card.questionImage);
-                                        if (questionImage != null && questionImage.exists() && questionImage.canRead()) {
-                                            ZipEntry questionImageZip = new ZipEntry(ZIP_CONTENT_IMAGE_QUESTION_DIR + card.questionImage);
-                                            zipOutputStream.putNextEntry(questionImageZip);
-                                            try (FileInputStream fis = new FileInputStream(questionImage)) {
-                                                mFileHelper.copyStream(fis, zipOutputStream);
-                                            }
-                                            zipOutputStream.closeEntry();
-                                        }
-                                    }
-                                    if (card.answerImage != null) {
-                                        File answerImage = mFileHelper.getCardAnswerImage(card.answerImage);
-                                        if (answerImage != null && answerImage.exists() && answerImage.canRead()) {
-                                            ZipEntry answerImageZip = new ZipEntry(ZIP_CONTENT_IMAGE_ANSWER_DIR + card.answerImage);
-                                            zipOutputStream.putNextEntry(answerImageZip);
-                                            try (FileInputStream fis = new FileInputStream(answerImage)) {
-                                                mFileHelper.copyStream(fis, zipOutputStream);
-                                            }
-                                            zipOutputStream.closeEntry();
-                                        }
-                                    }
-                                    if (card.questionVoice != null) {
-                                        File file = mFileHelper.getCardQuestionVoice(card.questionVoice);
-                                        if (file != null && file.exists() && file.canRead()) {
-                                            ZipEntry zipEntry = new ZipEntry(ZIP_CONTENT_VOICE_QUESTION_DIR + card.questionVoice);
-                                            zipOutputStream.putNextEntry(zipEntry);
-                                            try (FileInputStream fis = new FileInputStream(file)) {
-                                                mFileHelper.copyStream(fis, zipOutputStream);
-                                            }
-                                            zipOutputStream.closeEntry();
-                                        }
-                                    }
-                                    if (card.answerVoice != null) {
-                                        File file = mFileHelper.getCardAnswerVoice(card.answerVoice);
-                                        if (file != null && file.exists() && file.canRead()) {
-                                            ZipEntry zipEntry = new ZipEntry(ZIP_CONTENT_VOICE_ANSWER_DIR + card.answerVoice);
-                                            zipOutputStream.putNextEntry(zipEntry);
-                                            try (FileInputStream fis = new FileInputStream(file)) {
-                                                mFileHelper.copyStream(fis, zipOutputStream);
-                                            }
-                                            zipOutputStream.closeEntry();
-                                        }
-                                    }
-                                }
+                                writeMedia(mediaFiles, zipOutputStream);
                             }
                             return zipFile;
                         } catch (IOException e) {
@@ -195,12 +147,120 @@ public class ExportImportCmd {
                 .subscribeOn(Schedulers.from(mExecutorService));
     }
 
+    /**
+     * Write decks JSON, media referenced by the cards are collected into mediaFiles keyed by zip entry name
+     * so that the cards don't need to be loaded again when writing media.
+     */
+    private void writeDeckModelsJson(List<Deck> deckList, OutputStream outputStream,
+                                     Map<String, File> mediaFiles) throws IOException {
+        // do not close, it will close the underlying zip stream
+        JsonWriter jsonWriter = new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+        jsonWriter.beginArray();
+        for (Deck deck : deckList) {
+            // only one deck cards are held in memory at a time
+            List<Card> cardList = mDeckDao.getCardByDeckId(deck.id);
+            new DeckModel(deck, cardList).toJson(jsonWriter);
+            for (Card card : cardList) {
+                collectMedia(card, mediaFiles);
+            }
+        }
+        jsonWriter.endArray();
+        jsonWriter.flush();
+    }
+
+    private void collectMedia(Card card, Map<String, File> mediaFiles) {
+        if (card.questionImage != null) {
+            mediaFiles.computeIfAbsent(ZIP_CONTENT_IMAGE_QUESTION_DIR + card.questionImage,
+                    k -> mFileHelper.getCardQuestionImage(card.questionImage));
+        }
+        if (card.answerImage != null) {
+            mediaFiles.computeIfAbsent(ZIP_CONTENT_IMAGE_ANSWER_DIR + card.answerImage,
+                    k -> mFileHelper.getCardAnswerImage(card.answerImage));
+        }
+        if (card.questionVoice != null) {
+            mediaFiles.computeIfAbsent(ZIP_CONTENT_VOICE_QUESTION_DIR + card.questionVoice,
+                    k -> mFileHelper.getCardQuestionVoice(card.questionVoice));
+        }
+        if (card.answerVoice != null) {
+            mediaFiles.computeIfAbsent(ZIP_CONTENT_VOICE_ANSWER_DIR + card.answerVoice,
+                    k -> mFileHelper.getCardAnswerVoice(card.answerVoice));
+        }
+    }
+
+    /**
+     * Write card media as STORED entries, images and voices are already compressed.
+     * Each entry is written once even if shared by several cards.
+     * CRC and size of upcoming entries are computed in parallel while entries are written sequentially.
+     */
+    private void writeMedia(Map<String, File> mediaFiles, ZipOutputStream zipOutputStream) throws IOException {
+        Deque<FutureTask<MediaZipEntry>> pendingEntries = new ArrayDeque<>();
+        for (Map.Entry<String, File> mediaFile : mediaFiles.entrySet()) {
+            File file = mediaFile.getValue();
+            if (file == null || !file.exists() || !file.canRead()) {
+                continue;
+            }
+            String entryName = mediaFile.getKey();
+            FutureTask<MediaZipEntry> task = new FutureTask<>(() -> prepareStoredEntry(entryName, file));
+            mExecutorService.execute(task);
+            pendingEntries.add(task);
+            if (pendingEntries.size() >= MEDIA_PREPARE_AHEAD) {
+                writeMediaEntry(pendingEntries.poll(), zipOutputStream);
+            }
+        }
+        while (!pendingEntries.isEmpty()) {
+            writeMediaEntry(pendingEntries.poll(), zipOutputStream);
+        }
+    }
+
+    private void writeMediaEntry(FutureTask<MediaZipEntry> task, ZipOutputStream zipOutputStream) throws IOException {
+        // run it here if the executor has not picked it up yet, no-op otherwise
+        task.run();
+        MediaZipEntry mediaZipEntry;
+        try {
+            mediaZipEntry = task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+        zipOutputStream.putNextEntry(mediaZipEntry.zipEntry);
+        try (FileInputStream fis = new FileInputStream(mediaZipEntry.file)) {
+            mFileHelper.copyStream(fis, zipOutputStream);
+        }
+        zipOutputStream.closeEntry();
+    }
+
+    private MediaZipEntry prepareStoredEntry(String entryName, File file) throws IOException {
+        CRC32 crc32 = new CRC32();
+        long size = 0;
+        try (InputStream inputStream = new FileInputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int length;
+            while ((length = inputStream.read(buffer)) > 0) {
+                crc32.update(buffer, 0, length);
+                size += length;
+            }
+        }
+        ZipEntry zipEntry = new ZipEntry(entryName);
+        zipEntry.setMethod(ZipEntry.STORED);
+        zipEntry.setSize(size);
+        zipEntry.setCompressedSize(size);
+        zipEntry.setCrc(crc32.getValue());
+        return new MediaZipEntry(zipEntry, file);
+    }
+
     public Single<List<DeckModel>> importFile(File file) {
         if (file.getName().toLowerCase().endsWith(".apkg")) {
             return Single.fromCallable(() -> {
                         List<DeckModel> result = mAnkiImporter.importApkg(file);
                         if (!result.isEmpty()) {
-                            mDeckDao.importDecks(result);
+                            importDeckModels(result);
                         }
                         return result;
                     })
@@ -210,6 +270,7 @@ public class ExportImportCmd {
                     try (ZipFile zipFile = new ZipFile(file)) {
                         Enumeration<? extends ZipEntry> zipEntryEnumeration = zipFile.entries();
                         List<DeckModel> deckModelList = new ArrayList<>();
+                        ThumbnailGenerator.Batch thumbnailBatch = mThumbnailGenerator.newBatch();
                         while (zipEntryEnumeration.hasMoreElements()) {
                             ZipEntry zipEntry = zipEntryEnumeration.nextElement();
                             // process deck json
@@ -220,23 +281,13 @@ public class ExportImportCmd {
                             }
                             if (zipEntry.getName().startsWith(ZIP_CONTENT_IMAGE_QUESTION_DIR)) {
                                 String fileName = zipEntry.getName().substring(ZIP_CONTENT_IMAGE_QUESTION_DIR.length());
-                                File imageTempFile = mFileHelper.createImageTempFile();
-                                try (BufferedInputStream bis = new BufferedInputStream(zipFile.getInputStream(zipEntry));
-                                     BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(imageTempFile))) {
-                                    mFileHelper.copyStream(bis, bos);
-                                }
-                                mFileHelper.createCardQuestionImage(imageTempFile, fileName);
-                                mFileHelper.createCardQuestionImageThumbnail(Uri.fromFile(imageTempFile), fileName);
+                                mFileHelper.createCardQuestionImage(() -> zipFile.getInputStream(zipEntry), fileName);
+                                thumbnailBatch.addQuestionImage(fileName);
                             }
                             if (zipEntry.getName().startsWith(ZIP_CONTENT_IMAGE_ANSWER_DIR)) {
                                 String fileName = zipEntry.getName().substring(ZIP_CONTENT_IMAGE_ANSWER_DIR.length());
-                                File imageTempFile = mFileHelper.createImageTempFile();
-                                try (BufferedInputStream bis = new BufferedInputStream(zipFile.getInputStream(zipEntry));
-                                     BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(imageTempFile))) {
-                                    mFileHelper.copyStream(bis, bos);
-                                }
-                                mFileHelper.createCardAnswerImage(imageTempFile, fileName);
-                                mFileHelper.createCardAnswerImageThumbnail(Uri.fromFile(imageTempFile), fileName);
+                                mFileHelper.createCardAnswerImage(() -> zipFile.getInputStream(zipEntry), fileName);
+                                thumbnailBatch.addAnswerImage(fileName);
                             }
                             if (zipEntry.getName().startsWith(ZIP_CONTENT_VOICE_QUESTION_DIR)) {
                                 String fileName = zipEntry.getName().substring(ZIP_CONTENT_VOICE_QUESTION_DIR.length());
@@ -257,9 +308,10 @@ public class ExportImportCmd {
                                 mFileHelper.createCardAnswerVoice(tempFile, fileName);
                             }
                         }
+                        thumbnailBatch.execute();
 
                         if (!deckModelList.isEmpty()) {
-                            mDeckDao.importDecks(deckModelList);
+                            importDeckModels(deckModelList);
                         }
                         return deckModelList;
                     } catch (ZipException e) {
@@ -268,7 +320,7 @@ public class ExportImportCmd {
                         try (FileInputStream fis = new FileInputStream(file)) {
                             List<DeckModel> deckModelList = getDeckModelsFromJson(fis);
                             if (!deckModelList.isEmpty()) {
-                                mDeckDao.importDecks(deckModelList);
+                                importDeckModels(deckModelList);
                             }
                             return deckModelList;
                         } catch (Exception exception) {
@@ -286,19 +338,31 @@ public class ExportImportCmd {
                 .subscribeOn(Schedulers.from(mExecutorService));
     }
 
+    private void importDeckModels(List<DeckModel> deckModelList) {
+        mDeckDao.importDecks(deckModelList, (importedCards, totalCards) ->
+                mLogger.d(TAG, "Imported " + importedCards + "/" + totalCards + " cards"));
+        List<Deck> decks = new ArrayList<>(deckModelList.size());
+        List<Card> cards = new ArrayList<>();
+        for (DeckModel deckModel : deckModelList) {
+            decks.add(deckModel.getDeck());
+            cards.addAll(deckModel.getCardList());
+        }
+        mDeckChangeNotifier.decksAdded(decks);
+        mDeckChangeNotifier.cardsAdded(cards);
+    }
+
     @NonNull
-    private List<DeckModel> getDeckModelsFromJson(InputStream is) throws IOException, JSONException {
-        try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(is))) {
-            String jsonString = bufferedReader.readLine();
-            JSONArray jsonArray = new JSONArray(jsonString);
-            int size = jsonArray.length();
+    private List<DeckModel> getDeckModelsFromJson(InputStream is) throws IOException {
+        try (JsonReader jsonReader = new JsonReader(new BufferedReader(
+                new InputStreamReader(is, StandardCharsets.UTF_8)))) {
             List<DeckModel> deckModelsFromJson = new ArrayList<>();
-            for (int i = 0; i < size; i++) {
-                JSONObject jsonObject = jsonArray.getJSONObject(i);
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
                 DeckModel deckModel = new DeckModel();
-                deckModel.fromJson(jsonObject);
+                deckModel.fromJson(jsonReader);
                 deckModelsFromJson.add(deckModel);
             }
+            jsonReader.endArray();
             return deckModelsFromJson;
         }
     }
@@ -309,4 +373,14 @@ public class ExportImportCmd {
                 .flatMap(this::importFile)
                 .subscribeOn(Schedulers.from(mExecutorService));
     }
+
+    private static class MediaZipEntry {
+        private final ZipEntry zipEntry;
+        private final File file;
+
+        private MediaZipEntry(ZipEntry zipEntry, File file) {
+            this.zipEntry = zipEntry;
+            this.file = file;
+        }
+    }
 }
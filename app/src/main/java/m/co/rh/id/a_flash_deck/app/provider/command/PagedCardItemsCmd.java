@@ -19,162 +19,80 @@ package m.co.rh.id.a_flash_deck.app.provider.command;
 
 import android.content.Context;
 
-import java.util.ArrayList;
-import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ExecutorService;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingSource;
+import androidx.paging.rxjava3.PagingRx;
 
-import io.reactivex.rxjava3.core.BackpressureStrategy;
 import io.reactivex.rxjava3.core.Flowable;
-import io.reactivex.rxjava3.disposables.CompositeDisposable;
-import io.reactivex.rxjava3.schedulers.Schedulers;
-import io.reactivex.rxjava3.subjects.BehaviorSubject;
+import kotlinx.coroutines.CoroutineScope;
+import kotlinx.coroutines.CoroutineScopeKt;
 import m.co.rh.id.a_flash_deck.base.dao.DeckDao;
 import m.co.rh.id.a_flash_deck.base.entity.Card;
-import m.co.rh.id.a_flash_deck.base.entity.Deck;
-import m.co.rh.id.a_flash_deck.base.provider.notifier.DeckChangeNotifier;
-import m.co.rh.id.alogger.ILogger;
 import m.co.rh.id.aprovider.Provider;
 import m.co.rh.id.aprovider.ProviderDisposable;
 
+/**
+ * Card list of a deck or all decks, optionally filtered by search, as paging data.
+ * Paging source is invalidated by room whenever card or deck table changed,
+ * and invalidated here when deck or search changed.
+ */
 public class PagedCardItemsCmd implements ProviderDisposable {
-    private static final String TAG = PagedCardItemsCmd.class.getName();
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_DISTANCE = 50;
+    // pages beyond this many items away from the visible window are dropped into placeholders
+    private static final int MAX_SIZE = 300;
 
-    private final ExecutorService mExecutorService;
     private final DeckDao mDeckDao;
-    private final ILogger mLogger;
-    private int mLimit;
-    private Long mDeckId;
-    private String mSearch;
-    private final BehaviorSubject<ArrayList<Card>> mCardItemsSubject;
-    private final BehaviorSubject<Boolean> mIsLoadingSubject;
-    private final CompositeDisposable mCompositeDisposable;
+    private final CoroutineScope mPagingScope;
+    private final Flowable<PagingData<Card>> mPagingDataFlow;
+    private volatile Long mDeckId;
+    private volatile String mSearch;
+    private volatile PagingSource<Integer, Card> mPagingSource;
 
     public PagedCardItemsCmd(Provider provider) {
-        mExecutorService = provider.get(ExecutorService.class);
         mDeckDao = provider.get(DeckDao.class);
-        mLogger = provider.get(ILogger.class);
-        DeckChangeNotifier deckChangeNotifier = provider.get(DeckChangeNotifier.class);
-        mCardItemsSubject = BehaviorSubject.createDefault(new ArrayList<>());
-        mIsLoadingSubject = BehaviorSubject.createDefault(false);
-        resetPage();
-        mCompositeDisposable = new CompositeDisposable();
-        mCompositeDisposable.add(deckChangeNotifier.getMovedCardFlow()
-                .observeOn(Schedulers.from(mExecutorService))
-                .subscribe(moveCardEvent -> refresh()));
-        mCompositeDisposable.add(deckChangeNotifier.getAddedCardFlow()
-                .observeOn(Schedulers.from(mExecutorService))
-                .subscribe(card -> refresh()));
-        mCompositeDisposable.add(deckChangeNotifier.getUpdatedCardFlow()
-                .observeOn(Schedulers.from(mExecutorService))
-                .subscribe(card -> refresh()));
-        mCompositeDisposable.add(deckChangeNotifier.getDeletedCardFlow()
-                .observeOn(Schedulers.from(mExecutorService))
-                .subscribe(card -> refresh()));
+        mPagingScope = CoroutineScopeKt.MainScope();
+        Pager<Integer, Card> pager = new Pager<>(
+                new PagingConfig(PAGE_SIZE, PREFETCH_DISTANCE, true, PAGE_SIZE * 2, MAX_SIZE),
+                this::createPagingSource);
+        mPagingDataFlow = PagingRx.cachedIn(PagingRx.getFlowable(pager), mPagingScope);
     }
 
     private boolean isSearching() {
         return mSearch != null && !mSearch.isEmpty();
     }
 
-    public void search(String search) {
-        mSearch = search;
-        mExecutorService.execute(() -> {
-            if (!isSearching()) {
-                load();
-            } else {
-                mIsLoadingSubject.onNext(true);
-                try {
-                    Set<Card> cardSet = new LinkedHashSet<>();
-                    if (mDeckId == null) {
-                        cardSet.addAll(mDeckDao.searchCard(search));
-                    } else {
-                        cardSet.addAll(mDeckDao.searchCardByDeckId(mDeckId, search));
-                    }
-                    // also search the deck name and append it altogether
-                    List<Deck> deckList = mDeckDao.searchDeck(search);
-                    List<Card> cardFromDeck = mDeckDao.getCardsByDecks(deckList);
-                    cardSet.addAll(cardFromDeck);
-
-                    ArrayList<Card> cardArrayList = new ArrayList<>();
-                    if (!cardSet.isEmpty()) {
-                        cardArrayList.addAll(cardSet);
-                    }
-                    mCardItemsSubject.onNext(cardArrayList);
-                } catch (Throwable throwable) {
-                    mLogger.e(TAG, throwable.getMessage(), throwable);
-                } finally {
-                    mIsLoadingSubject.onNext(false);
-                }
-            }
-        });
-    }
-
-    public void loadNextPage() {
-        // no pagination for search
-        if (isSearching()) return;
-        if (getAllCardItems().size() < mLimit) {
-            return;
-        }
-        mLimit += mLimit;
-        load();
-    }
-
-    public void refresh() {
+    private PagingSource<Integer, Card> createPagingSource() {
+        PagingSource<Integer, Card> pagingSource;
+        Long deckId = mDeckId;
         if (isSearching()) {
-            doSearch();
+            // search also matches deck name
+            pagingSource = mDeckDao.searchCardPagingSource(deckId, mSearch);
+        } else if (deckId == null) {
+            pagingSource = mDeckDao.getCardPagingSource();
         } else {
-            load();
+            pagingSource = mDeckDao.getCardByDeckIdPagingSource(deckId);
         }
+        mPagingSource = pagingSource;
+        return pagingSource;
     }
 
-    private void doSearch() {
-        search(mSearch);
-    }
-
-    private void load() {
-        mExecutorService.execute(() -> {
-            mIsLoadingSubject.onNext(true);
-            try {
-                mCardItemsSubject.onNext(
-                        loadCardItems());
-            } catch (Throwable throwable) {
-                mLogger.e(TAG, throwable.getMessage(), throwable);
-            } finally {
-                mIsLoadingSubject.onNext(false);
-            }
-        });
+    public void search(String search) {
+        mSearch = search;
+        refresh();
     }
 
-    private ArrayList<Card> loadCardItems() {
-        List<Card> cardList;
-        if (mDeckId == null) {
-            cardList = mDeckDao.getCardWithLimit(mLimit);
-        } else {
-            cardList = mDeckDao.getCardByDeckIdWithLimit(mDeckId, mLimit);
-        }
-        ArrayList<Card> cardArrayList = new ArrayList<>();
-        if (cardList != null && !cardList.isEmpty()) {
-            cardArrayList.addAll(cardList);
+    public void refresh() {
+        PagingSource<Integer, Card> pagingSource = mPagingSource;
+        if (pagingSource != null) {
+            pagingSource.invalidate();
         }
-        return cardArrayList;
-    }
-
-    public ArrayList<Card> getAllCardItems() {
-        return mCardItemsSubject.getValue();
-    }
-
-    public Flowable<ArrayList<Card>> getCardsFlow() {
-        return Flowable.fromObservable(mCardItemsSubject, BackpressureStrategy.BUFFER);
     }
 
-    public Flowable<Boolean> getLoadingFlow() {
-        return Flowable.fromObservable(mIsLoadingSubject, BackpressureStrategy.BUFFER);
-    }
-
-    private void resetPage() {
-        mLimit = 100;
+    public Flowable<PagingData<Card>> getPagingDataFlow() {
+        return mPagingDataFlow;
     }
 
     public void setDeckId(Long deckId) {
@@ -183,8 +101,6 @@ public class PagedCardItemsCmd implements ProviderDisposable {
 
     @Override
     public void dispose(Context context) {
-        if (!mCompositeDisposable.isDisposed()) {
-            mCompositeDisposable.dispose();
-        }
+        CoroutineScopeKt.cancel(mPagingScope, null);
     }
 }
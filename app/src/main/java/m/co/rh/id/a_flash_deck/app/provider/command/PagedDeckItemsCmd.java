@@ -22,24 +22,30 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import io.reactivex.rxjava3.core.BackpressureStrategy;
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.subjects.BehaviorSubject;
 import m.co.rh.id.a_flash_deck.base.dao.DeckDao;
 import m.co.rh.id.a_flash_deck.base.entity.Deck;
+import m.co.rh.id.a_flash_deck.base.model.DeckWithCount;
 import m.co.rh.id.alogger.ILogger;
 import m.co.rh.id.aprovider.Provider;
 
 public class PagedDeckItemsCmd {
     private static final String TAG = PagedDeckItemsCmd.class.getName();
+    private static final int PAGE_SIZE = 10;
 
     private ExecutorService mExecutorService;
     private DeckDao mDeckDao;
     private ILogger mLogger;
-    private int mLimit;
-    private String mSearch;
-    private final BehaviorSubject<ArrayList<Deck>> mDeckItemsSubject;
+    private volatile String mSearch;
+    // incremented when search changed, loaded pages of older generation are discarded
+    private final AtomicInteger mGeneration;
+    private int mPageGeneration;
+    private boolean mHasNextPage;
+    private final BehaviorSubject<ArrayList<DeckWithCount>> mDeckItemsSubject;
     private final BehaviorSubject<Boolean> mIsLoadingSubject;
     private final BehaviorSubject<Set<Long>> mSelectedDeckIdsSubject;
 
@@ -50,7 +56,8 @@ public class PagedDeckItemsCmd {
         mDeckItemsSubject = BehaviorSubject.createDefault(new ArrayList<>());
         mIsLoadingSubject = BehaviorSubject.createDefault(false);
         mSelectedDeckIdsSubject = BehaviorSubject.createDefault(new LinkedHashSet<>());
-        resetPage();
+        mGeneration = new AtomicInteger();
+        mPageGeneration = -1;
     }
 
     private boolean isSearching() {
@@ -82,77 +89,93 @@ public class PagedDeckItemsCmd {
 
     public void search(String search) {
         mSearch = search;
-        mExecutorService.execute(() -> {
-            if (!isSearching()) {
-                load();
-            } else {
-                mIsLoadingSubject.onNext(true);
-                try {
-                    List<Deck> deckList = mDeckDao.searchDeck(search);
-                    ArrayList<Deck> deckArrayList = new ArrayList<>();
-                    if (deckList != null && !deckList.isEmpty()) {
-                        deckArrayList.addAll(deckList);
-                    }
-                    mDeckItemsSubject.onNext(deckArrayList);
-                } catch (Throwable throwable) {
-                    mLogger.e(TAG, throwable.getMessage(), throwable);
-                } finally {
-                    mIsLoadingSubject.onNext(false);
-                }
-            }
-        });
+        mGeneration.incrementAndGet();
+        load();
     }
 
     public void loadNextPage() {
-        // no pagination for search
-        if (isSearching()) return;
-        if (getAllDeckItems().size() < mLimit) {
-            return;
-        }
-        mLimit += mLimit;
-        load();
+        mExecutorService.execute(this::appendNextPage);
     }
 
     public void refresh() {
-        if (isSearching()) {
-            doSearch();
-        } else {
-            load();
-        }
+        load();
     }
 
-    private void doSearch() {
-        search(mSearch);
+    private void load() {
+        mExecutorService.execute(this::reload);
+    }
+
+    /**
+     * Reload from the first page, keeping as many decks as currently loaded
+     * unless search has changed since.
+     */
+    private synchronized void reload() {
+        int generation = mGeneration.get();
+        int limit = PAGE_SIZE;
+        if (mPageGeneration == generation) {
+            limit = Math.max(PAGE_SIZE, getAllDeckItems().size());
+        }
+        mIsLoadingSubject.onNext(true);
+        try {
+            List<DeckWithCount> deckList = loadPage(null, limit);
+            if (generation != mGeneration.get()) {
+                // search changed while loading, newer load will follow
+                return;
+            }
+            mPageGeneration = generation;
+            mHasNextPage = deckList.size() >= limit;
+            mDeckItemsSubject.onNext(new ArrayList<>(deckList));
+        } catch (Throwable throwable) {
+            mLogger.e(TAG, throwable.getMessage(), throwable);
+        } finally {
+            mIsLoadingSubject.onNext(false);
+        }
     }
 
-    private void load() {
-        mExecutorService.execute(() -> {
-            mIsLoadingSubject.onNext(true);
-            try {
-                mDeckItemsSubject.onNext(
-                        loadDeckItems());
-            } catch (Throwable throwable) {
-                mLogger.e(TAG, throwable.getMessage(), throwable);
-            } finally {
-                mIsLoadingSubject.onNext(false);
+    private synchronized void appendNextPage() {
+        int generation = mGeneration.get();
+        ArrayList<DeckWithCount> currentDecks = getAllDeckItems();
+        if (!mHasNextPage || mPageGeneration != generation || currentDecks.isEmpty()) {
+            return;
+        }
+        mIsLoadingSubject.onNext(true);
+        try {
+            List<DeckWithCount> deckList = loadPage(currentDecks.get(currentDecks.size() - 1).deck, PAGE_SIZE);
+            if (generation != mGeneration.get()) {
+                return;
+            }
+            mHasNextPage = deckList.size() >= PAGE_SIZE;
+            if (!deckList.isEmpty()) {
+                ArrayList<DeckWithCount> deckArrayList = new ArrayList<>(currentDecks.size() + deckList.size());
+                deckArrayList.addAll(currentDecks);
+                deckArrayList.addAll(deckList);
+                mDeckItemsSubject.onNext(deckArrayList);
             }
-        });
+        } catch (Throwable throwable) {
+            mLogger.e(TAG, throwable.getMessage(), throwable);
+        } finally {
+            mIsLoadingSubject.onNext(false);
+        }
     }
 
-    private ArrayList<Deck> loadDeckItems() {
-        List<Deck> deckList = mDeckDao.getDeckWithLimit(mLimit);
-        ArrayList<Deck> deckArrayList = new ArrayList<>();
-        if (deckList != null && !deckList.isEmpty()) {
-            deckArrayList.addAll(deckList);
+    /**
+     * @param after last loaded deck, null to load from the first deck
+     */
+    private List<DeckWithCount> loadPage(Deck after, int limit) {
+        if (isSearching()) {
+            return mDeckDao.searchDeck(mSearch, after, limit);
+        }
+        if (after == null) {
+            return mDeckDao.getDeckWithLimit(limit);
         }
-        return deckArrayList;
+        return mDeckDao.getDeckAfter(after.name, after.id, limit);
     }
 
-    public ArrayList<Deck> getAllDeckItems() {
+    public ArrayList<DeckWithCount> getAllDeckItems() {
         return mDeckItemsSubject.getValue();
     }
 
-    public Flowable<ArrayList<Deck>> getDecksFlow() {
+    public Flowable<ArrayList<DeckWithCount>> getDecksFlow() {
         return Flowable.fromObservable(mDeckItemsSubject, BackpressureStrategy.BUFFER);
     }
 
@@ -160,19 +183,15 @@ public class PagedDeckItemsCmd {
         return Flowable.fromObservable(mIsLoadingSubject, BackpressureStrategy.BUFFER);
     }
 
-    private void resetPage() {
-        mLimit = 10;
-    }
-
     public synchronized ArrayList<Deck> getSelectedDecks() {
         Set<Long> selectedDeckIds = mSelectedDeckIdsSubject.getValue();
         ArrayList<Deck> returnedDeck = new ArrayList<>();
         if (!selectedDeckIds.isEmpty()) {
-            ArrayList<Deck> deckItems = getAllDeckItems();
+            ArrayList<DeckWithCount> deckItems = getAllDeckItems();
             if (!deckItems.isEmpty()) {
-                for (Deck deck : deckItems) {
-                    if (selectedDeckIds.contains(deck.id)) {
-                        returnedDeck.add(deck);
+                for (DeckWithCount deckItem : deckItems) {
+                    if (selectedDeckIds.contains(deckItem.deck.id)) {
+                        returnedDeck.add(deckItem.deck);
                     }
                 }
             }
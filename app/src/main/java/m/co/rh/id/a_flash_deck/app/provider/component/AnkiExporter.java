@@ -33,6 +33,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.Deflater;
 
 import m.co.rh.id.a_flash_deck.R;
 import m.co.rh.id.a_flash_deck.app.anki.ApkgGenerator;
@@ -46,6 +47,8 @@ import m.co.rh.id.aprovider.Provider;
 
 public class AnkiExporter {
     private static final String TAG = AnkiExporter.class.getName();
+    // SQLite pages deflate well even at the fastest level, higher levels mostly cost CPU
+    private static final int COLLECTION_COMPRESSION_LEVEL = Deflater.BEST_SPEED;
 
     protected Context mAppContext;
     protected ILogger mLogger;
@@ -80,7 +83,8 @@ public class AnkiExporter {
                 throw new ValidationException("No cards found in selected decks");
             }
 
-            Map<String, Integer> mediaMap = buildMediaMap(allCards);
+            Map<String, File> mediaSourceFiles = new HashMap<>();
+            Map<String, Integer> mediaMap = buildMediaMap(allCards, mediaSourceFiles);
 
             tempDir = new File(mAppContext.getCacheDir(), "anki_export_" + System.currentTimeMillis());
             tempDir.mkdirs();
@@ -145,7 +149,7 @@ public class AnkiExporter {
                 for (Map.Entry<String, Integer> entry : mediaMap.entrySet()) {
                     String mediaName = entry.getKey();
                     Integer numericId = entry.getValue();
-                    File sourceFile = findMediaFile(allCards, mediaName);
+                    File sourceFile = mediaSourceFiles.get(mediaName);
                     if (sourceFile != null && sourceFile.exists()) {
                         mediaFiles.put(String.valueOf(numericId), sourceFile);
                     } else {
@@ -161,7 +165,8 @@ public class AnkiExporter {
             String mediaJson = ApkgGenerator.createMediaJson(mediaMap);
 
             String outputFileName = "deck_export_" + System.currentTimeMillis() + ".apkg";
-            File outputFile = ApkgGenerator.generateApkg(dbFile, mediaFiles, mediaJson, outputFileName);
+            File outputFile = ApkgGenerator.generateApkg(dbFile, mediaFiles, mediaJson, outputFileName,
+                    COLLECTION_COMPRESSION_LEVEL);
 
             return outputFile;
         } catch (IOException | JSONException e) {
@@ -174,22 +179,34 @@ public class AnkiExporter {
         }
     }
 
-    private Map<String, Integer> buildMediaMap(List<Card> cards) {
+    /**
+     * Assign numeric id to each distinct media name and resolve its source file in the same pass.
+     * When a name is used by several cards, the first card field that uses it decides the source file.
+     *
+     * @param cards            cards to be exported
+     * @param mediaSourceFiles filled with media name to source file
+     * @return media name to numeric id, in order of first appearance
+     */
+    private Map<String, Integer> buildMediaMap(List<Card> cards, Map<String, File> mediaSourceFiles) {
         Map<String, Integer> mediaMap = new LinkedHashMap<>();
         int nextId = 0;
 
         for (Card card : cards) {
             if (card.questionImage != null && !card.questionImage.isEmpty() && !mediaMap.containsKey(card.questionImage)) {
                 mediaMap.put(card.questionImage, nextId++);
+                mediaSourceFiles.put(card.questionImage, mFileHelper.getCardQuestionImage(card.questionImage));
             }
             if (card.answerImage != null && !card.answerImage.isEmpty() && !mediaMap.containsKey(card.answerImage)) {
                 mediaMap.put(card.answerImage, nextId++);
+                mediaSourceFiles.put(card.answerImage, mFileHelper.getCardAnswerImage(card.answerImage));
             }
             if (card.questionVoice != null && !card.questionVoice.isEmpty() && !mediaMap.containsKey(card.questionVoice)) {
                 mediaMap.put(card.questionVoice, nextId++);
+                mediaSourceFiles.put(card.questionVoice, mFileHelper.getCardQuestionVoice(card.questionVoice));
             }
             if (card.answerVoice != null && !card.answerVoice.isEmpty() && !mediaMap.containsKey(card.answerVoice)) {
                 mediaMap.put(card.answerVoice, nextId++);
+                mediaSourceFiles.put(card.answerVoice, mFileHelper.getCardAnswerVoice(card.answerVoice));
             }
         }
 
@@ -214,22 +231,4 @@ public class AnkiExporter {
         }
         return sb.toString();
     }
-
-    private File findMediaFile(List<Card> cards, String mediaName) {
-        for (Card card : cards) {
-            if (card.questionImage != null && card.questionImage.equals(mediaName)) {
-                return mFileHelper.getCardQuestionImage(mediaName);
-            }
-            if (card.answerImage != null && card.answerImage.equals(mediaName)) {
-                return mFileHelper.getCardAnswerImage(mediaName);
-            }
-            if (card.questionVoice != null && card.questionVoice.equals(mediaName)) {
-                return mFileHelper.getCardQuestionVoice(mediaName);
-            }
-            if (card.answerVoice != null && card.answerVoice.equals(mediaName)) {
-                return mFileHelper.getCardAnswerVoice(mediaName);
-            }
-        }
-        return null;
-    }
 }
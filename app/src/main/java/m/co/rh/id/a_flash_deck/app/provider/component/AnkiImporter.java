@@ -19,7 +19,6 @@ package m.co.rh.id.a_flash_deck.app.provider.component;
 
 import android.content.Context;
 import android.database.sqlite.SQLiteDatabase;
-import android.net.Uri;
 import android.text.Spanned;
 
 import androidx.core.text.HtmlCompat;
@@ -28,6 +27,7 @@ import org.json.JSONException;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.text.Normalizer;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -37,6 +37,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import m.co.rh.id.a_flash_deck.R;
@@ -45,6 +46,7 @@ import m.co.rh.id.a_flash_deck.app.anki.model.AnkiCard;
 import m.co.rh.id.a_flash_deck.app.anki.model.AnkiDeck;
 import m.co.rh.id.a_flash_deck.app.anki.model.AnkiNote;
 import m.co.rh.id.a_flash_deck.app.anki.model.AnkiNotetype;
+import m.co.rh.id.a_flash_deck.base.component.ThumbnailGenerator;
 import m.co.rh.id.a_flash_deck.base.dao.DeckDao;
 import m.co.rh.id.a_flash_deck.base.entity.Card;
 import m.co.rh.id.a_flash_deck.base.entity.Deck;
@@ -65,12 +67,14 @@ public class AnkiImporter {
     protected ILogger mLogger;
     protected DeckDao mDeckDao;
     protected FileHelper mFileHelper;
+    protected ThumbnailGenerator mThumbnailGenerator;
 
     public AnkiImporter(Provider provider) {
         mAppContext = provider.getContext().getApplicationContext();
         mLogger = provider.get(ILogger.class);
         mDeckDao = provider.get(DeckDao.class);
         mFileHelper = provider.get(FileHelper.class);
+        mThumbnailGenerator = provider.get(ThumbnailGenerator.class);
         mImgPattern = Pattern.compile("<img[^>]+src=[\"']([^\"']+)[\"']", Pattern.CASE_INSENSITIVE);
         mSoundPattern = Pattern.compile("\\[sound:([^\\]]+)\\]");
     }
@@ -85,132 +89,140 @@ public class AnkiImporter {
             tempDir = new File(mAppContext.getCacheDir(), "anki_import_" + System.currentTimeMillis());
             tempDir.mkdirs();
 
-            SQLiteDatabase db = ApkgParser.extractAndReadDatabase(apkgFile, tempDir);
-            Map<String, File> mediaFiles = ApkgParser.extractMediaFiles(apkgFile, tempDir);
-            Map<String, String> mediaMapping;
+            // open the zip once, media entries are streamed from it only when referenced by a card
             try (ZipFile zipFile = new ZipFile(apkgFile)) {
-                mediaMapping = ApkgParser.parseMediaJson(zipFile);
-            }
-
-            List<AnkiNotetype> notetypes;
-            List<AnkiNote> notes = new ArrayList<>();
-            List<AnkiCard> cards = new ArrayList<>();
-            List<AnkiDeck> decks;
-            
-            try {
-                notetypes = ApkgParser.readNotetypes(db);
-                decks = ApkgParser.readDecks(db);
-
-                for (AnkiNotetype notetype : notetypes) {
-                    if (ApkgParser.isBasicNotetype(notetype)) {
-                        List<AnkiNote> notetypeNotes = ApkgParser.readNotes(db, notetype.id);
-                        notes.addAll(notetypeNotes);
-                    } else {
-                        mLogger.d(TAG, "Skipping non-Basic notetype: " + notetype.name);
-                    }
+                Map<String, String> mediaMapping = ApkgParser.parseMediaJson(zipFile);
+                SQLiteDatabase db = ApkgParser.extractAndReadDatabase(zipFile, tempDir);
+                Map<Long, DeckModel> deckModelMap = readDeckModels(db);
+                copyMediaToAppPaths(zipFile, mediaMapping, deckModelMap);
+                generateThumbnailsForMedia(deckModelMap);
+
+                for (DeckModel deckModel : deckModelMap.values()) {
+                    deckModel.getCardList().sort((c1, c2) -> Long.compare(c1.ordinal, c2.ordinal));
                 }
 
-                if (notes.isEmpty()) {
-                    throw new ValidationException("No Basic cards found in APKG file");
-                }
+                List<DeckModel> result = new ArrayList<>(deckModelMap.values());
+                return result;
+            }
+        } catch (IOException | JSONException e) {
+            mLogger.e(TAG, "Failed to import APKG", e);
+            throw new ValidationException(mAppContext.getString(R.string.error_failed_to_parse_file));
+        } finally {
+            if (tempDir != null) {
+                mFileHelper.deleteDirectory(tempDir);
+            }
+        }
+    }
 
-                List<Long> noteIds = new ArrayList<>();
-                for (AnkiNote note : notes) {
-                    noteIds.add(note.id);
+    private Map<Long, DeckModel> readDeckModels(SQLiteDatabase db) throws JSONException {
+        Map<Long, DeckModel> deckModelMap = new HashMap<>();
+        try {
+            List<AnkiNotetype> notetypes = ApkgParser.readNotetypes(db);
+            List<AnkiDeck> decks = ApkgParser.readDecks(db);
+
+            List<Long> basicNotetypeIds = new ArrayList<>();
+            List<Long> noteIds = new ArrayList<>();
+            for (AnkiNotetype notetype : notetypes) {
+                if (ApkgParser.isBasicNotetype(notetype)) {
+                    basicNotetypeIds.add(notetype.id);
+                    noteIds.addAll(ApkgParser.readNoteIds(db, notetype.id));
+                } else {
+                    mLogger.d(TAG, "Skipping non-Basic notetype: " + notetype.name);
                 }
-                cards.addAll(ApkgParser.readCards(db, noteIds));
-            } finally {
-                db.close();
             }
 
-            List<Deck> existingDecks = mDeckDao.getAllDecks();
-            Set<String> existingNames = new HashSet<>();
-            for (Deck deck : existingDecks) {
-                existingNames.add(deck.name);
+            if (noteIds.isEmpty()) {
+                throw new ValidationException("No Basic cards found in APKG file");
             }
 
-            Map<Long, String> deckIdToNameMap = new HashMap<>();
-            Map<Long, String> deckIdToResolvedNameMap = new HashMap<>();
-            for (AnkiDeck ankiDeck : decks) {
-                String flattenedName = flattenDeckName(ankiDeck.name);
-                String resolvedName = resolveDeckNameConflict(flattenedName, existingNames);
-                deckIdToNameMap.put(ankiDeck.id, ankiDeck.name);
-                deckIdToResolvedNameMap.put(ankiDeck.id, resolvedName);
-                existingNames.add(resolvedName);
+            // index cards by note id so each note is joined with its cards in O(1)
+            Map<Long, List<AnkiCard>> cardsByNoteId = new HashMap<>();
+            ApkgParser.readCards(db, noteIds, ankiCard ->
+                    cardsByNoteId.computeIfAbsent(ankiCard.nid, k -> new ArrayList<>()).add(ankiCard));
+            noteIds.clear();
+
+            Map<Long, String> deckIdToResolvedNameMap = resolveDeckNames(decks);
+            for (Long notetypeId : basicNotetypeIds) {
+                ApkgParser.readNotes(db, notetypeId, note ->
+                        addNoteCards(note, cardsByNoteId.remove(note.id),
+                                deckIdToResolvedNameMap, deckModelMap));
             }
+        } finally {
+            db.close();
+        }
+        return deckModelMap;
+    }
 
-            Map<Long, DeckModel> deckModelMap = new HashMap<>();
-            for (AnkiNote note : notes) {
-                if (note.flds == null || note.flds.isEmpty()) {
-                    mLogger.d(TAG, "Skipping note with empty fields");
-                    continue;
-                }
-                String[] fields = note.flds.split(FIELD_SEPARATOR);
-                if (fields.length < 1) {
-                    mLogger.d(TAG, "Skipping note with no fields");
-                    continue;
-                }
-
-                String field1 = fields.length >= 1 ? fields[0] : "";
-                String field2 = fields.length >= 2 ? fields[1] : "";
+    private Map<Long, String> resolveDeckNames(List<AnkiDeck> decks) {
+        List<Deck> existingDecks = mDeckDao.getAllDecks();
+        Set<String> existingNames = new HashSet<>();
+        for (Deck deck : existingDecks) {
+            existingNames.add(deck.name);
+        }
 
-                String questionText = parseFieldText(field1);
-                String questionImage = parseFieldImage(field1);
-                String questionVoice = parseFieldVoice(field1);
+        Map<Long, String> deckIdToResolvedNameMap = new HashMap<>();
+        for (AnkiDeck ankiDeck : decks) {
+            String flattenedName = flattenDeckName(ankiDeck.name);
+            String resolvedName = resolveDeckNameConflict(flattenedName, existingNames);
+            deckIdToResolvedNameMap.put(ankiDeck.id, resolvedName);
+            existingNames.add(resolvedName);
+        }
+        return deckIdToResolvedNameMap;
+    }
 
-                String answerText = parseFieldText(field2);
-                String answerImage = parseFieldImage(field2);
-                String answerVoice = parseFieldVoice(field2);
+    private void addNoteCards(AnkiNote note, List<AnkiCard> noteCards,
+                              Map<Long, String> deckIdToResolvedNameMap,
+                              Map<Long, DeckModel> deckModelMap) {
+        if (noteCards == null || noteCards.isEmpty()) {
+            return;
+        }
+        if (note.flds == null || note.flds.isEmpty()) {
+            mLogger.d(TAG, "Skipping note with empty fields");
+            return;
+        }
+        String[] fields = note.flds.split(FIELD_SEPARATOR);
+        if (fields.length < 1) {
+            mLogger.d(TAG, "Skipping note with no fields");
+            return;
+        }
 
-                for (AnkiCard ankiCard : cards) {
-                    if (ankiCard.nid != note.id) {
-                        continue;
-                    }
+        String field1 = fields.length >= 1 ? fields[0] : "";
+        String field2 = fields.length >= 2 ? fields[1] : "";
 
-                    String deckName = deckIdToResolvedNameMap.get(ankiCard.did);
-                    if (deckName == null) {
-                        deckName = "Imported Deck";
-                    }
+        String questionText = parseFieldText(field1);
+        String questionImage = parseFieldImage(field1);
+        String questionVoice = parseFieldVoice(field1);
 
-                    DeckModel deckModel = deckModelMap.get(ankiCard.did);
-                    if (deckModel == null) {
-                        Deck deck = new Deck();
-                        deck.name = deckName;
-                        deckModel = new DeckModel(deck, new ArrayList<>());
-                        deckModelMap.put(ankiCard.did, deckModel);
-                    }
+        String answerText = parseFieldText(field2);
+        String answerImage = parseFieldImage(field2);
+        String answerVoice = parseFieldVoice(field2);
 
-                    Card card = new Card();
-                    card.question = questionText;
-                    card.answer = answerText;
-                    card.questionImage = questionImage;
-                    card.answerImage = answerImage;
-                    card.questionVoice = questionVoice;
-                    card.answerVoice = answerVoice;
-                    card.ordinal = ankiCard.ord;
-                    card.isReversibleQA = false;
-                    card.isReversed = false;
-
-                    deckModel.getCardList().add(card);
-                }
+        for (AnkiCard ankiCard : noteCards) {
+            String deckName = deckIdToResolvedNameMap.get(ankiCard.did);
+            if (deckName == null) {
+                deckName = "Imported Deck";
             }
 
-            copyMediaToAppPaths(mediaFiles, mediaMapping, deckModelMap);
-            generateThumbnailsForMedia(deckModelMap);
-
-            for (DeckModel deckModel : deckModelMap.values()) {
-                deckModel.getCardList().sort((c1, c2) -> Long.compare(c1.ordinal, c2.ordinal));
+            DeckModel deckModel = deckModelMap.get(ankiCard.did);
+            if (deckModel == null) {
+                Deck deck = new Deck();
+                deck.name = deckName;
+                deckModel = new DeckModel(deck, new ArrayList<>());
+                deckModelMap.put(ankiCard.did, deckModel);
             }
 
-            List<DeckModel> result = new ArrayList<>(deckModelMap.values());
-            return result;
-        } catch (IOException | JSONException e) {
-            mLogger.e(TAG, "Failed to import APKG", e);
-            throw new ValidationException(mAppContext.getString(R.string.error_failed_to_parse_file));
-        } finally {
-            if (tempDir != null) {
-                mFileHelper.deleteDirectory(tempDir);
-            }
+            Card card = new Card();
+            card.question = questionText;
+            card.answer = answerText;
+            card.questionImage = questionImage;
+            card.answerImage = answerImage;
+            card.questionVoice = questionVoice;
+            card.answerVoice = answerVoice;
+            card.ordinal = ankiCard.ord;
+            card.isReversibleQA = false;
+            card.isReversed = false;
+
+            deckModel.getCardList().add(card);
         }
     }
 
@@ -275,72 +287,89 @@ public class AnkiImporter {
         return resolvedName;
     }
 
-    private void copyMediaToAppPaths(Map<String, File> mediaFiles, Map<String, String> mediaMapping, Map<Long, DeckModel> deckModelMap) throws IOException {
+    private void copyMediaToAppPaths(ZipFile zipFile, Map<String, String> mediaMapping, Map<Long, DeckModel> deckModelMap) throws IOException {
         Map<String, String> inverseMediaMap = new HashMap<>();
         for (Map.Entry<String, String> entry : mediaMapping.entrySet()) {
             inverseMediaMap.put(entry.getValue(), entry.getKey());
         }
+        // media shared by many cards is copied once per target, cards then share the copied file
+        Map<String, String> questionImageMap = new HashMap<>();
+        Map<String, String> answerImageMap = new HashMap<>();
+        Map<String, String> questionVoiceMap = new HashMap<>();
+        Map<String, String> answerVoiceMap = new HashMap<>();
 
         for (DeckModel deckModel : deckModelMap.values()) {
             for (Card card : deckModel.getCardList()) {
                 if (card.questionImage != null) {
-                    String numericKey = inverseMediaMap.get(card.questionImage);
-                    if (numericKey != null && mediaFiles.containsKey(numericKey)) {
-                        File sourceFile = mediaFiles.get(numericKey);
-                        String extension = getFileExtension(card.questionImage);
-                        if (extension == null) {
-                            extension = ".jpg";
+                    String newFileName = questionImageMap.get(card.questionImage);
+                    if (newFileName == null) {
+                        ZipEntry mediaEntry = ApkgParser.getMediaEntry(zipFile, inverseMediaMap.get(card.questionImage));
+                        if (mediaEntry != null) {
+                            String extension = getFileExtension(card.questionImage);
+                            if (extension == null) {
+                                extension = ".jpg";
+                            }
+                            newFileName = generateUniqueFileName() + extension;
+                            mFileHelper.createCardQuestionImage(() -> zipFile.getInputStream(mediaEntry), newFileName);
+                            questionImageMap.put(card.questionImage, newFileName);
+                        } else {
+                            mLogger.w(TAG, "Missing media file for question image: " + card.questionImage);
                         }
-                        String newFileName = generateUniqueFileName() + extension;
-                        mFileHelper.createCardQuestionImage(sourceFile, newFileName);
-                        card.questionImage = newFileName;
-                    } else {
-                        mLogger.w(TAG, "Missing media file for question image: " + card.questionImage);
-                        card.questionImage = null;
                     }
+                    card.questionImage = newFileName;
                 }
 
                 if (card.answerImage != null) {
-                    String numericKey = inverseMediaMap.get(card.answerImage);
-                    if (numericKey != null && mediaFiles.containsKey(numericKey)) {
-                        File sourceFile = mediaFiles.get(numericKey);
-                        String extension = getFileExtension(card.answerImage);
-                        if (extension == null) {
-                            extension = ".jpg";
+                    String newFileName = answerImageMap.get(card.answerImage);
+                    if (newFileName == null) {
+                        ZipEntry mediaEntry = ApkgParser.getMediaEntry(zipFile, inverseMediaMap.get(card.answerImage));
+                        if (mediaEntry != null) {
+                            String extension = getFileExtension(card.answerImage);
+                            if (extension == null) {
+                                extension = ".jpg";
+                            }
+                            newFileName = generateUniqueFileName() + extension;
+                            mFileHelper.createCardAnswerImage(() -> zipFile.getInputStream(mediaEntry), newFileName);
+                            answerImageMap.put(card.answerImage, newFileName);
+                        } else {
+                            mLogger.w(TAG, "Missing media file for answer image: " + card.answerImage);
                         }
-                        String newFileName = generateUniqueFileName() + extension;
-                        mFileHelper.createCardAnswerImage(sourceFile, newFileName);
-                        card.answerImage = newFileName;
-                    } else {
-                        mLogger.w(TAG, "Missing media file for answer image: " + card.answerImage);
-                        card.answerImage = null;
                     }
+                    card.answerImage = newFileName;
                 }
 
                 if (card.questionVoice != null) {
-                    String numericKey = inverseMediaMap.get(card.questionVoice);
-                    if (numericKey != null && mediaFiles.containsKey(numericKey)) {
-                        File sourceFile = mediaFiles.get(numericKey);
-                        String newFileName = generateUniqueFileName();
-                        mFileHelper.createCardQuestionVoice(sourceFile, newFileName);
-                        card.questionVoice = newFileName;
-                    } else {
-                        mLogger.w(TAG, "Missing media file for question voice: " + card.questionVoice);
-                        card.questionVoice = null;
+                    String newFileName = questionVoiceMap.get(card.questionVoice);
+                    if (newFileName == null) {
+                        ZipEntry mediaEntry = ApkgParser.getMediaEntry(zipFile, inverseMediaMap.get(card.questionVoice));
+                        if (mediaEntry != null) {
+                            newFileName = generateUniqueFileName();
+                            try (InputStream inputStream = zipFile.getInputStream(mediaEntry)) {
+                                mFileHelper.createCardQuestionVoice(inputStream, newFileName);
+                            }
+                            questionVoiceMap.put(card.questionVoice, newFileName);
+                        } else {
+                            mLogger.w(TAG, "Missing media file for question voice: " + card.questionVoice);
+                        }
                     }
+                    card.questionVoice = newFileName;
                 }
 
                 if (card.answerVoice != null) {
-                    String numericKey = inverseMediaMap.get(card.answerVoice);
-                    if (numericKey != null && mediaFiles.containsKey(numericKey)) {
-                        File sourceFile = mediaFiles.get(numericKey);
-                        String newFileName = generateUniqueFileName();
-                        mFileHelper.createCardAnswerVoice(sourceFile, newFileName);
-                        card.answerVoice = newFileName;
-                    } else {
-                        mLogger.w(TAG, "Missing media file for answer voice: " + card.answerVoice);
-                        card.answerVoice = null;
+                    String newFileName = answerVoiceMap.get(card.answerVoice);
+                    if (newFileName == null) {
+                        ZipEntry mediaEntry = ApkgParser.getMediaEntry(zipFile, inverseMediaMap.get(card.answerVoice));
+                        if (mediaEntry != null) {
+                            newFileName = generateUniqueFileName();
+                            try (InputStream inputStream = zipFile.getInputStream(mediaEntry)) {
+                                mFileHelper.createCardAnswerVoice(inputStream, newFileName);
+                            }
+                            answerVoiceMap.put(card.answerVoice, newFileName);
+                        } else {
+                            mLogger.w(TAG, "Missing media file for answer voice: " + card.answerVoice);
+                        }
                     }
+                    card.answerVoice = newFileName;
                 }
             }
         }
@@ -362,28 +391,25 @@ public class AnkiImporter {
     }
 
     private void generateThumbnailsForMedia(Map<Long, DeckModel> deckModelMap) {
+        Set<String> questionImages = new HashSet<>();
+        Set<String> answerImages = new HashSet<>();
         for (DeckModel deckModel : deckModelMap.values()) {
             for (Card card : deckModel.getCardList()) {
                 if (card.questionImage != null) {
-                    try {
-                        File imageFile = mFileHelper.getCardQuestionImage(card.questionImage);
-                        Uri uri = Uri.fromFile(imageFile);
-                        mFileHelper.createCardQuestionImageThumbnail(uri, card.questionImage);
-                    } catch (Exception e) {
-                        mLogger.e(TAG, "Failed to create thumbnail for question image", e);
-                    }
+                    questionImages.add(card.questionImage);
                 }
-
                 if (card.answerImage != null) {
-                    try {
-                        File imageFile = mFileHelper.getCardAnswerImage(card.answerImage);
-                        Uri uri = Uri.fromFile(imageFile);
-                        mFileHelper.createCardAnswerImageThumbnail(uri, card.answerImage);
-                    } catch (Exception e) {
-                        mLogger.e(TAG, "Failed to create thumbnail for answer image", e);
-                    }
+                    answerImages.add(card.answerImage);
                 }
             }
         }
+        ThumbnailGenerator.Batch thumbnailBatch = mThumbnailGenerator.newBatch();
+        for (String questionImage : questionImages) {
+            thumbnailBatch.addQuestionImage(questionImage);
+        }
+        for (String answerImage : answerImages) {
+            thumbnailBatch.addAnswerImage(answerImage);
+        }
+        thumbnailBatch.execute();
     }
 }
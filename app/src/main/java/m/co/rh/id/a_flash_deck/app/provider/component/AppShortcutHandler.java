@@ -27,7 +27,6 @@ import android.os.Build;
 import androidx.annotation.RequiresApi;
 
 import java.util.Collections;
-import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 
@@ -38,9 +37,9 @@ import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.subjects.BehaviorSubject;
 import m.co.rh.id.a_flash_deck.R;
 import m.co.rh.id.a_flash_deck.app.CardShowActivity;
+import m.co.rh.id.a_flash_deck.base.component.CardSampler;
 import m.co.rh.id.a_flash_deck.base.constants.IntentKeys;
 import m.co.rh.id.a_flash_deck.base.constants.Shortcuts;
-import m.co.rh.id.a_flash_deck.base.dao.DeckDao;
 import m.co.rh.id.a_flash_deck.base.entity.Card;
 import m.co.rh.id.a_flash_deck.base.entity.Deck;
 import m.co.rh.id.a_flash_deck.base.provider.notifier.DeckChangeNotifier;
@@ -54,7 +53,7 @@ public class AppShortcutHandler implements ProviderDisposable {
     private Context mAppContext;
     private ProviderValue<ILogger> mLogger;
     private ProviderValue<ExecutorService> mExecutorService;
-    private ProviderValue<DeckDao> mDeckDao;
+    private ProviderValue<CardSampler> mCardSampler;
     private DeckChangeNotifier mDeckChangeNotifier;
     private BehaviorSubject<Optional<Card>> mCardSubject;
     private CompositeDisposable mCompositeDisposable;
@@ -63,7 +62,7 @@ public class AppShortcutHandler implements ProviderDisposable {
         mAppContext = provider.getContext().getApplicationContext();
         mLogger = provider.lazyGet(ILogger.class);
         mExecutorService = provider.lazyGet(ExecutorService.class);
-        mDeckDao = provider.lazyGet(DeckDao.class);
+        mCardSampler = provider.lazyGet(CardSampler.class);
         mDeckChangeNotifier = provider.get(DeckChangeNotifier.class);
         mCardSubject = BehaviorSubject.create();
         mCompositeDisposable = new CompositeDisposable();
@@ -137,12 +136,9 @@ public class AppShortcutHandler implements ProviderDisposable {
 
     public void dispatchRandomCard(long deckId) {
         mExecutorService.get().execute(() -> {
-            List<Card> cardList = mDeckDao.get().getCardByDeckId(deckId);
-            if (!cardList.isEmpty()) {
-                if (cardList.size() > 1) {
-                    Collections.shuffle(cardList);
-                }
-                dispatch(cardList.get(0));
+            Card card = mCardSampler.get().randomCard(deckId);
+            if (card != null) {
+                dispatch(card);
             } else {
                 String message = mAppContext.getString(R.string.error_no_card_from_deck);
                 mLogger.get().i(TAG, message);
@@ -0,0 +1,112 @@
+/*
+ *     Copyright (C) 2021-2026 Ruby Hartono
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package m.co.rh.id.a_flash_deck.app.provider.component;
+
+import android.content.Context;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import m.co.rh.id.a_flash_deck.base.dao.DeckDao;
+import m.co.rh.id.a_flash_deck.base.entity.Deck;
+import m.co.rh.id.a_flash_deck.base.provider.notifier.DeckChangeNotifier;
+import m.co.rh.id.aprovider.Provider;
+import m.co.rh.id.aprovider.ProviderDisposable;
+import m.co.rh.id.aprovider.ProviderValue;
+
+/**
+ * In memory deck id to deck lookup for list rows.
+ * All decks are loaded once on first use, afterwards kept up to date by {@link DeckChangeNotifier}
+ * so lookup does not touch the database.
+ */
+public class DeckCache implements ProviderDisposable {
+    private ProviderValue<ExecutorService> mExecutorService;
+    private ProviderValue<DeckDao> mDeckDao;
+    private DeckChangeNotifier mDeckChangeNotifier;
+    private final Map<Long, Deck> mDeckMap;
+    private volatile boolean mLoaded;
+    private CompositeDisposable mCompositeDisposable;
+
+    public DeckCache(Provider provider) {
+        mExecutorService = provider.lazyGet(ExecutorService.class);
+        mDeckDao = provider.lazyGet(DeckDao.class);
+        mDeckChangeNotifier = provider.get(DeckChangeNotifier.class);
+        mDeckMap = new ConcurrentHashMap<>();
+        mCompositeDisposable = new CompositeDisposable();
+        init();
+    }
+
+    private void init() {
+        mCompositeDisposable.add(mDeckChangeNotifier.getAddedDecksFlow()
+                .subscribe(decks -> {
+                    for (Deck deck : decks) {
+                        mDeckMap.put(deck.id, deck);
+                    }
+                }));
+        mCompositeDisposable.add(mDeckChangeNotifier.getUpdatedDeckFlow()
+                .subscribe(deck -> mDeckMap.put(deck.id, deck)));
+        mCompositeDisposable.add(mDeckChangeNotifier.getDeletedDeckFlow()
+                .subscribe(deck -> mDeckMap.remove(deck.id)));
+    }
+
+    public Single<Deck> getDeckById(long deckId) {
+        if (mLoaded) {
+            Deck deck = mDeckMap.get(deckId);
+            if (deck != null) {
+                return Single.just(deck);
+            }
+        }
+        return Single.fromCallable(() -> loadDeck(deckId))
+                .subscribeOn(Schedulers.from(mExecutorService.get()));
+    }
+
+    private Deck loadDeck(long deckId) {
+        loadAll();
+        Deck deck = mDeckMap.get(deckId);
+        if (deck == null) {
+            deck = mDeckDao.get().getDeckById(deckId);
+            if (deck != null) {
+                mDeckMap.put(deck.id, deck);
+            }
+        }
+        return deck;
+    }
+
+    private synchronized void loadAll() {
+        if (!mLoaded) {
+            List<Deck> decks = mDeckDao.get().getAllDecks();
+            for (Deck deck : decks) {
+                // do not overwrite newer deck from notifier
+                mDeckMap.putIfAbsent(deck.id, deck);
+            }
+            mLoaded = true;
+        }
+    }
+
+    @Override
+    public void dispose(Context context) {
+        mCompositeDisposable.dispose();
+        mCompositeDisposable = null;
+        mDeckMap.clear();
+    }
+}
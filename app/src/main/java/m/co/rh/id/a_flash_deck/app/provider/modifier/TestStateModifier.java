@@ -22,16 +22,29 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 
@@ -53,6 +66,11 @@ import m.co.rh.id.aprovider.ProviderValue;
 
 public class TestStateModifier {
     private static final String TAG = TestStateModifier.class.getName();
+    // "FDTS", state file written by older version starts with java serialization header instead
+    private static final int STATE_FILE_MAGIC = 0x46445453;
+    private static final int STATE_FILE_VERSION = 1;
+    // magic and version come before current index
+    private static final long STATE_FILE_CURRENT_INDEX_OFFSET = 8;
     private final Object mLock = new Object();
 
     protected Context mAppContext;
@@ -76,7 +94,7 @@ public class TestStateModifier {
             synchronized (mLock) {
                 Test test = mTestDao.get().getTestById(testState.getTestId());
                 testState.previousCard();
-                serializeTest(testState, test);
+                updateAfterNavigation(testState, test);
                 mTestChangeNotifier.get().testStateChange(testState);
                 return testState;
             }
@@ -88,13 +106,24 @@ public class TestStateModifier {
             synchronized (mLock) {
                 Test test = mTestDao.get().getTestById(testState.getTestId());
                 testState.nextCard();
-                serializeTest(testState, test);
+                updateAfterNavigation(testState, test);
                 mTestChangeNotifier.get().testStateChange(testState);
                 return testState;
             }
         }).subscribeOn(Schedulers.from(mExecutorService.get()));
     }
 
+    /**
+     * Hydrate cards around new current index and persist the index
+     */
+    private void updateAfterNavigation(TestState testState, Test test) throws IOException {
+        if (hydrateWindow(testState)) {
+            serializeTest(testState, test);
+        } else {
+            writeCurrentIndex(testState, test);
+        }
+    }
+
     public Single<TestState> stopActiveTest() {
         return Single.fromCallable(() -> {
             synchronized (mLock) {
@@ -202,19 +231,193 @@ public class TestStateModifier {
         }
     }
 
+    /**
+     * Make sure cards around current index are hydrated, cards deleted while test is running are removed.
+     *
+     * @return true if cards were removed and state file must be fully rewritten
+     */
+    private boolean hydrateWindow(TestState testState) {
+        boolean removed = false;
+        while (true) {
+            List<Long> windowCardIds = testState.getWindowCardIds();
+            // cards already hydrated could have been deleted too, check the whole window
+            Set<Long> existingCardIds = new HashSet<>(mDeckDao.get().findCardIdsByCardIds(windowCardIds));
+            Map<Long, Card> currentWindow = testState.getWindowCards();
+            Map<Long, Card> window = new HashMap<>();
+            List<Long> missingCardIds = new ArrayList<>();
+            Set<Long> deletedCardIds = new HashSet<>();
+            for (Long cardId : windowCardIds) {
+                Card card = currentWindow.get(cardId);
+                if (!existingCardIds.contains(cardId)) {
+                    deletedCardIds.add(cardId);
+                } else if (card != null) {
+                    window.put(cardId, card);
+                } else {
+                    missingCardIds.add(cardId);
+                }
+            }
+            if (!missingCardIds.isEmpty()) {
+                for (Card card : mDeckDao.get().findCardsByCardIds(missingCardIds)) {
+                    window.put(card.id, card);
+                }
+                for (Long cardId : missingCardIds) {
+                    if (!window.containsKey(cardId)) {
+                        deletedCardIds.add(cardId);
+                    }
+                }
+            }
+            if (deletedCardIds.isEmpty()) {
+                testState.setWindowCards(window);
+                return removed;
+            }
+            testState.removeCards(deletedCardIds);
+            removed = true;
+            if (testState.getTotalCards() == 0) {
+                throw new ValidationException(mAppContext.getString(R.string.error_no_card_from_deck));
+            }
+        }
+    }
+
+    /**
+     * Write test state file: header, current index, test id, card ids in test order
+     * and a bit per card for reversed question/answer.
+     * Card content is not written, it is loaded from database by id.
+     */
     private void serializeTest(TestState testState, Test test) throws IOException {
         File file = new File(test.stateFileLocation);
-        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(new FileOutputStream(file))) {
-            objectOutputStream.writeObject(testState);
+        int size = testState.getTotalCards();
+        byte[] reversedFlags = new byte[(size + 7) / 8];
+        try (DataOutputStream dataOutputStream = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            dataOutputStream.writeInt(STATE_FILE_MAGIC);
+            dataOutputStream.writeInt(STATE_FILE_VERSION);
+            dataOutputStream.writeInt(testState.getCurrentCardIndex());
+            dataOutputStream.writeLong(testState.getTestId());
+            dataOutputStream.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                dataOutputStream.writeLong(testState.getCardId(i));
+                if (testState.isReversed(i)) {
+                    reversedFlags[i >> 3] |= (byte) (1 << (i & 7));
+                }
+            }
+            dataOutputStream.write(reversedFlags);
+        }
+    }
+
+    /**
+     * Only current index changes when navigating, update it in place
+     */
+    private void writeCurrentIndex(TestState testState, Test test) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(test.stateFileLocation, "rw")) {
+            randomAccessFile.seek(STATE_FILE_CURRENT_INDEX_OFFSET);
+            randomAccessFile.writeInt(testState.getCurrentCardIndex());
         }
     }
 
     private TestState deserializeTest(Test test) throws IOException, ClassNotFoundException {
         File file = new File(test.stateFileLocation);
-        TestState testState;
-        try (ObjectInputStream objectInputStream = new ObjectInputStream(new FileInputStream(file))) {
-            testState = (TestState) objectInputStream.readObject();
+        TestState testState = null;
+        try (DataInputStream dataInputStream = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (dataInputStream.readInt() == STATE_FILE_MAGIC) {
+                int version = dataInputStream.readInt();
+                if (version != STATE_FILE_VERSION) {
+                    throw new IOException("Unsupported test state version " + version);
+                }
+                int currentIndex = dataInputStream.readInt();
+                long testId = dataInputStream.readLong();
+                int size = dataInputStream.readInt();
+                long[] cardIds = new long[size];
+                for (int i = 0; i < size; i++) {
+                    cardIds[i] = dataInputStream.readLong();
+                }
+                byte[] reversedFlags = new byte[(size + 7) / 8];
+                dataInputStream.readFully(reversedFlags);
+                testState = new TestState(cardIds, BitSet.valueOf(reversedFlags), testId, currentIndex);
+            }
+        }
+        boolean rewrite;
+        if (testState != null) {
+            rewrite = hydrateWindow(testState);
+        } else {
+            testState = deserializeLegacyTest(file);
+            rewrite = true;
+        }
+        if (rewrite) {
+            // legacy file or cards deleted, so current index matches the file again
+            serializeTest(testState, test);
+        }
+        return testState;
+    }
+
+    /**
+     * Read state file of older version that is java serialization of whole TestState with its cards
+     */
+    private TestState deserializeLegacyTest(File file) throws IOException, ClassNotFoundException {
+        LegacyTestState legacyTestState;
+        try (ObjectInputStream objectInputStream = new LegacyTestStateInputStream(new FileInputStream(file))) {
+            legacyTestState = (LegacyTestState) objectInputStream.readObject();
+        }
+        List<LegacyCard> cards = legacyTestState.mChoosenCards;
+        int size = cards.size();
+        if (size == 0) {
+            throw new ValidationException(mAppContext.getString(R.string.error_no_card_from_deck));
+        }
+        long[] cardIds = new long[size];
+        BitSet reversedFlags = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            LegacyCard card = cards.get(i);
+            cardIds[i] = card.id;
+            reversedFlags.set(i, card.isReversed);
         }
+        TestState testState = new TestState(cardIds, reversedFlags, legacyTestState.mTestId,
+                Math.min(legacyTestState.mCurrentCardIndex, size - 1));
+        hydrateWindow(testState);
         return testState;
     }
+
+    /**
+     * Same serializable fields as TestState had in legacy state file
+     */
+    private static class LegacyTestState implements Serializable {
+        private ArrayList<LegacyCard> mChoosenCards;
+        private int mCurrentCardIndex;
+        private long mTestId;
+    }
+
+    /**
+     * Same serializable fields as Card had in legacy state file,
+     * Card has no serialVersionUID so its computed one no longer matches the file
+     */
+    private static class LegacyCard implements Serializable {
+        private Long id;
+        private Long deckId;
+        private int ordinal;
+        private String question;
+        private String questionImage;
+        private String questionVoice;
+        private String answer;
+        private String answerImage;
+        private String answerVoice;
+        private boolean isReversibleQA;
+        private boolean isReversed;
+    }
+
+    private static class LegacyTestStateInputStream extends ObjectInputStream {
+        LegacyTestStateInputStream(InputStream inputStream) throws IOException {
+            super(inputStream);
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+            ObjectStreamClass objectStreamClass = super.readClassDescriptor();
+            if (TestState.class.getName().equals(objectStreamClass.getName())) {
+                return ObjectStreamClass.lookup(LegacyTestState.class);
+            }
+            if (Card.class.getName().equals(objectStreamClass.getName())) {
+                return ObjectStreamClass.lookup(LegacyCard.class);
+            }
+            return objectStreamClass;
+        }
+    }
 }
@@ -73,6 +73,8 @@ public class CardItemSV extends StatefulView<Activity> implements RequireNavigat
     private transient DeckQueryCmd mDeckQueryCmd;
 
     private SerialBehaviorSubject<Card> mCardSubject;
+    private transient ViewGroup mRootLayout;
+    private transient boolean mPlaceholder;
 
     public CardItemSV() {
         mCardSubject = new SerialBehaviorSubject<>();
@@ -111,6 +113,7 @@ public class CardItemSV extends StatefulView<Activity> implements RequireNavigat
         TextView textQuestion = rootLayout.findViewById(R.id.text_question);
         TextView textAnswer = rootLayout.findViewById(R.id.text_answer);
         TextView textDeckName = rootLayout.findViewById(R.id.text_deck_name);
+        mRootLayout = rootLayout;
         // Image visibility is cheap and synchronous — update it immediately on
         // the main thread so there is no flicker.
         mRxDisposer.add("createView_onCardImage",
@@ -154,14 +157,17 @@ public class CardItemSV extends StatefulView<Activity> implements RequireNavigat
                         mDeckQueryCmd.getDeckById(card.deckId)
                                 .observeOn(AndroidSchedulers.mainThread())
                 ).subscribe(deck -> {
-                    textDeckName.setText(deck.name);
+                    if (getCard() != null) {
+                        textDeckName.setText(deck.name);
+                    }
                 }, throwable -> {
                     mLogger.e(TAG, mSvProvider.getContext().getString(R.string.error_loading_deck), throwable);
                 }));
         mRxDisposer.add("createView_onMoveCard",
                 mDeckChangeNotifier
                         .getMovedCardFlow()
-                        .filter(moveCardEvent -> moveCardEvent.getMovedCard().id.equals(getCard().id))
+                        .filter(moveCardEvent -> getCard() != null
+                                && moveCardEvent.getMovedCard().id.equals(getCard().id))
                         .switchMapSingle(moveCardEvent -> {
                             Context context = mSvProvider.getContext();
                             Card movedCard = moveCardEvent.getMovedCard();
@@ -200,19 +206,60 @@ public class CardItemSV extends StatefulView<Activity> implements RequireNavigat
         mNavigator = null;
     }
 
+    /**
+     * @param card null to show empty placeholder that can't be clicked, until next card is set
+     */
     public void setCard(Card card) {
-        if (card != null) {
+        if (card == null) {
+            showPlaceholder();
+        } else {
+            mPlaceholder = false;
+            setClickable(true);
             mCardSubject.onNext(card);
         }
     }
 
+    /**
+     * @return null if showing placeholder
+     */
     public Card getCard() {
+        if (mPlaceholder) {
+            return null;
+        }
         return mCardSubject.getValue();
     }
 
+    private void showPlaceholder() {
+        mPlaceholder = true;
+        if (mRootLayout == null) {
+            return;
+        }
+        ((TextView) mRootLayout.findViewById(R.id.text_question)).setText(null);
+        ((TextView) mRootLayout.findViewById(R.id.text_answer)).setText(null);
+        ((TextView) mRootLayout.findViewById(R.id.text_deck_name)).setText(null);
+        ImageView imageQuestion = mRootLayout.findViewById(R.id.image_question);
+        imageQuestion.setImageURI(null);
+        imageQuestion.setVisibility(View.GONE);
+        setClickable(false);
+    }
+
+    private void setClickable(boolean clickable) {
+        if (mRootLayout == null) {
+            return;
+        }
+        mRootLayout.setEnabled(clickable);
+        mRootLayout.findViewById(R.id.image_question).setEnabled(clickable);
+        mRootLayout.findViewById(R.id.button_edit).setEnabled(clickable);
+        mRootLayout.findViewById(R.id.button_delete).setEnabled(clickable);
+        mRootLayout.findViewById(R.id.button_more_action).setEnabled(clickable);
+    }
+
     @Override
     public void onClick(View view) {
         Card card = getCard();
+        if (card == null) {
+            return;
+        }
         int id = view.getId();
         if (id == R.id.root_layout || id == R.id.button_edit) {
             mNavigator.push(Routes.CARD_DETAIL_PAGE, CardDetailPage.Args.forUpdate(card.clone()),
@@ -274,6 +321,9 @@ public class CardItemSV extends StatefulView<Activity> implements RequireNavigat
     @Override
     public boolean onMenuItemClick(MenuItem item) {
         int id = item.getItemId();
+        if (getCard() == null) {
+            return false;
+        }
         if (id == R.id.menu_move_card) {
             moveCardAction(mNavigator, getCard().clone());
             return true;
@@ -24,7 +24,10 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.EditText;
 
-import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.paging.CombinedLoadStates;
+import androidx.paging.LoadState;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
@@ -35,6 +38,8 @@ import co.rh.id.lib.rx3_utils.subject.SerialOptionalBehaviorSubject;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import io.reactivex.rxjava3.subjects.PublishSubject;
+import kotlin.Unit;
+import kotlin.jvm.functions.Function1;
 import m.co.rh.id.a_flash_deck.R;
 import m.co.rh.id.a_flash_deck.app.provider.command.PagedCardItemsCmd;
 import m.co.rh.id.a_flash_deck.base.provider.IStatefulViewProvider;
@@ -57,7 +62,7 @@ public class CardListSV extends StatefulView<Activity> implements RequireCompone
     private transient PublishSubject<String> mSearchStringSubject;
     private transient TextWatcher mSearchTextWatcher;
     private transient CardRecyclerViewAdapter mCardRecyclerViewAdapter;
-    private transient RecyclerView.OnScrollListener mOnScrollListener;
+    private transient Function1<CombinedLoadStates, Unit> mLoadStatesListener;
 
     private final SerialOptionalBehaviorSubject<Long> mDeckId;
 
@@ -88,14 +93,6 @@ public class CardListSV extends StatefulView<Activity> implements RequireCompone
                 mSearchStringSubject.onNext(editable.toString());
             }
         };
-        mOnScrollListener = new RecyclerView.OnScrollListener() {
-            @Override
-            public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
-                if (!recyclerView.canScrollVertically(1) && newState == RecyclerView.SCROLL_STATE_IDLE) {
-                    mPagedCardItemsCmd.loadNextPage();
-                }
-            }
-        };
         mCardRecyclerViewAdapter = new CardRecyclerViewAdapter(
                 mNavigator, this);
     }
@@ -109,8 +106,19 @@ public class CardListSV extends StatefulView<Activity> implements RequireCompone
         swipeRefreshLayout.setOnRefreshListener(this);
         RecyclerView recyclerView = rootLayout.findViewById(R.id.recyclerView);
         recyclerView.setAdapter(mCardRecyclerViewAdapter);
-        recyclerView.addOnScrollListener(mOnScrollListener);
         View noRecord = rootLayout.findViewById(R.id.no_record);
+        mLoadStatesListener = loadStates -> {
+            boolean loading = loadStates.getRefresh() instanceof LoadState.Loading;
+            swipeRefreshLayout.setRefreshing(loading);
+            if (!loading && mCardRecyclerViewAdapter.getItemCount() == 0) {
+                noRecord.setVisibility(View.VISIBLE);
+            } else {
+                noRecord.setVisibility(View.GONE);
+            }
+            return Unit.INSTANCE;
+        };
+        mCardRecyclerViewAdapter.addLoadStateListener(mLoadStatesListener);
+        Lifecycle lifecycle = ((LifecycleOwner) activity).getLifecycle();
         mRxDisposer.add("createView_onDeckIdChanged",
                 mDeckId.getSubject().observeOn(AndroidSchedulers.mainThread())
                         .subscribe(aLong -> {
@@ -127,22 +135,10 @@ public class CardListSV extends StatefulView<Activity> implements RequireCompone
                 );
         mRxDisposer
                 .add("createView_onItemRefreshed",
-                        mPagedCardItemsCmd.getCardsFlow()
+                        mPagedCardItemsCmd.getPagingDataFlow()
                                 .observeOn(AndroidSchedulers.mainThread())
-                                .subscribe(decks -> {
-                                    mCardRecyclerViewAdapter.submitList(decks);
-                                    if (decks.isEmpty()) {
-                                        noRecord.setVisibility(View.VISIBLE);
-                                    } else {
-                                        noRecord.setVisibility(View.GONE);
-                                    }
-                                })
-                );
-        mRxDisposer
-                .add("createView_onLoadingChanged",
-                        mPagedCardItemsCmd.getLoadingFlow()
-                                .observeOn(AndroidSchedulers.mainThread())
-                                .subscribe(swipeRefreshLayout::setRefreshing)
+                                .subscribe(pagingData ->
+                                        mCardRecyclerViewAdapter.submitData(lifecycle, pagingData))
                 );
         return rootLayout;
     }
@@ -160,10 +156,13 @@ public class CardListSV extends StatefulView<Activity> implements RequireCompone
         }
         mSearchTextWatcher = null;
         if (mCardRecyclerViewAdapter != null) {
+            if (mLoadStatesListener != null) {
+                mCardRecyclerViewAdapter.removeLoadStateListener(mLoadStatesListener);
+                mLoadStatesListener = null;
+            }
             mCardRecyclerViewAdapter.dispose(activity);
             mCardRecyclerViewAdapter = null;
         }
-        mOnScrollListener = null;
     }
 
     @Override
@@ -22,8 +22,8 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
 import androidx.recyclerview.widget.DiffUtil;
-import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.ArrayList;
@@ -34,7 +34,11 @@ import m.co.rh.id.a_flash_deck.util.UiUtils;
 import m.co.rh.id.anavigator.StatefulView;
 import m.co.rh.id.anavigator.component.INavigator;
 
-public class CardRecyclerViewAdapter extends ListAdapter<Card, RecyclerView.ViewHolder> {
+/**
+ * Card list backed by paging data, only the loaded window around visible items is held in memory.
+ * Items not loaded yet are null placeholders.
+ */
+public class CardRecyclerViewAdapter extends PagingDataAdapter<Card, RecyclerView.ViewHolder> {
 
     private final INavigator mNavigator;
     private final StatefulView mParentStatefulView;
@@ -65,6 +69,11 @@ public class CardRecyclerViewAdapter extends ListAdapter<Card, RecyclerView.View
         if (holder instanceof ItemViewHolder) {
             Card item = getItem(position);
             ItemViewHolder itemViewHolder = (ItemViewHolder) holder;
+            if (item == null) {
+                // placeholder, clear the recycled row until its page is loaded
+                itemViewHolder.setItem(null);
+                return;
+            }
             Card itemFromHolder = itemViewHolder.getItem();
             if (itemFromHolder == null || !itemFromHolder.equals(item)) {
                 itemViewHolder.setItem(item);
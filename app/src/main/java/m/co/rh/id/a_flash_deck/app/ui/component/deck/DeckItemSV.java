@@ -37,7 +37,6 @@ import co.rh.id.lib.rx3_utils.subject.SerialBehaviorSubject;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import m.co.rh.id.a_flash_deck.R;
-import m.co.rh.id.a_flash_deck.app.provider.command.DeckQueryCmd;
 import m.co.rh.id.a_flash_deck.app.provider.command.DeleteDeckCmd;
 import m.co.rh.id.a_flash_deck.app.provider.component.AppShortcutHandler;
 import m.co.rh.id.a_flash_deck.app.ui.page.CardListPage;
@@ -46,7 +45,6 @@ import m.co.rh.id.a_flash_deck.base.constants.Routes;
 import m.co.rh.id.a_flash_deck.base.entity.Deck;
 import m.co.rh.id.a_flash_deck.base.provider.IStatefulViewProvider;
 import m.co.rh.id.a_flash_deck.base.provider.navigator.CommonNavConfig;
-import m.co.rh.id.a_flash_deck.base.provider.notifier.DeckChangeNotifier;
 import m.co.rh.id.a_flash_deck.base.rx.RxDisposer;
 import m.co.rh.id.alogger.ILogger;
 import m.co.rh.id.anavigator.StatefulView;
@@ -60,12 +58,9 @@ public class DeckItemSV extends StatefulView<Activity> implements RequireCompone
     @NavInject
     private transient INavigator mNavigator;
     private transient Provider mSvProvider;
-    private transient ILogger mLogger;
     private transient RxDisposer mRxDisposer;
     private transient CommonNavConfig mCommonNavConfig;
-    private transient DeckChangeNotifier mDeckChangeNotifier;
     private transient AppShortcutHandler mAppShortcutHandler;
-    private transient DeckQueryCmd mDeckQueryCmd;
 
     private SerialBehaviorSubject<Deck> mDeck;
     private SerialBehaviorSubject<Integer> mDeckCardCount;
@@ -76,12 +71,9 @@ public class DeckItemSV extends StatefulView<Activity> implements RequireCompone
     @Override
     public void provideComponent(Provider provider) {
         mSvProvider = provider.get(IStatefulViewProvider.class);
-        mLogger = mSvProvider.get(ILogger.class);
         mRxDisposer = mSvProvider.get(RxDisposer.class);
         mCommonNavConfig = mSvProvider.get(CommonNavConfig.class);
-        mDeckChangeNotifier = mSvProvider.get(DeckChangeNotifier.class);
         mAppShortcutHandler = mSvProvider.get(AppShortcutHandler.class);
-        mDeckQueryCmd = mSvProvider.get(DeckQueryCmd.class);
     }
 
     public DeckItemSV(ListMode listMode) {
@@ -147,50 +139,9 @@ public class DeckItemSV extends StatefulView<Activity> implements RequireCompone
                                 }
                             }
                         }));
-        mRxDisposer.add("createView_onCardAdded",
-                mDeckChangeNotifier.getAddedCardFlow()
-                        .observeOn(AndroidSchedulers.mainThread())
-                        .subscribe(card -> {
-                            if (card.deckId.equals(mDeck.getValue().id)) {
-                                loadCardCount();
-                            }
-                        }));
-        mRxDisposer.add("createView_onCardDeleted",
-                mDeckChangeNotifier.getDeletedCardFlow()
-                        .observeOn(AndroidSchedulers.mainThread())
-                        .subscribe(card -> {
-                            if (card.deckId.equals(mDeck.getValue().id)) {
-                                loadCardCount();
-                            }
-                        }));
-        mRxDisposer.add("createView_onCardMoved",
-                mDeckChangeNotifier.getMovedCardFlow()
-                        .observeOn(AndroidSchedulers.mainThread())
-                        .subscribe(moveCardEvent -> {
-                            Deck sourceDeck = moveCardEvent.getSourceDeck();
-                            Deck destDeck = moveCardEvent.getDestinationDeck();
-                            Deck currentDeck = mDeck.getValue();
-                            if (sourceDeck.id.equals(currentDeck.id) || destDeck.id.equals(currentDeck.id)) {
-                                loadCardCount();
-                            }
-                        }));
         return rootLayout;
     }
 
-    private void loadCardCount() {
-        mRxDisposer.add("loadCardCount_queryCardCount",
-                mDeckQueryCmd.countCards(mDeck.getValue())
-                        .observeOn(AndroidSchedulers.mainThread())
-                        .subscribe((integer, throwable) -> {
-                            if (throwable != null) {
-                                Context context = mSvProvider.getContext();
-                                mLogger.e(TAG, context.getString(R.string.error_counting_cards), throwable);
-                            } else {
-                                mDeckCardCount.onNext(integer);
-                            }
-                        }));
-    }
-
     @Override
     public void dispose(Activity activity) {
         super.dispose(activity);
@@ -201,9 +152,9 @@ public class DeckItemSV extends StatefulView<Activity> implements RequireCompone
         mListMode = null;
     }
 
-    public void setDeck(Deck deck) {
+    public void setDeck(Deck deck, int cardCount) {
         mDeck.onNext(deck);
-        loadCardCount();
+        mDeckCardCount.onNext(cardCount);
     }
 
     public Deck getDeck() {
@@ -251,7 +202,7 @@ public class DeckItemSV extends StatefulView<Activity> implements RequireCompone
                         DeckDetailSVDialog.Result result =
                                 DeckDetailSVDialog.Result.of(navRoute.getRouteResult());
                         if (result != null) {
-                            setDeck(result.getDeck());
+                            mDeck.onNext(result.getDeck());
                         }
                     });
         } else if (viewId == R.id.button_delete) {
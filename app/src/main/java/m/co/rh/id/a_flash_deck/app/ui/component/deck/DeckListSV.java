@@ -31,14 +31,23 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import io.reactivex.rxjava3.subjects.PublishSubject;
 import m.co.rh.id.a_flash_deck.R;
+import m.co.rh.id.a_flash_deck.app.provider.command.DeckQueryCmd;
 import m.co.rh.id.a_flash_deck.app.provider.command.PagedDeckItemsCmd;
+import m.co.rh.id.a_flash_deck.base.entity.Card;
 import m.co.rh.id.a_flash_deck.base.entity.Deck;
 import m.co.rh.id.a_flash_deck.base.provider.IStatefulViewProvider;
 import m.co.rh.id.a_flash_deck.base.provider.notifier.DeckChangeNotifier;
@@ -51,6 +60,7 @@ import m.co.rh.id.aprovider.Provider;
 
 public class DeckListSV extends StatefulView<Activity> implements RequireComponent<Provider>, SwipeRefreshLayout.OnRefreshListener {
     private static final String TAG = DeckListSV.class.getName();
+    private static final long CARD_COUNT_COALESCE_MILLIS = 300;
 
     @NavInject
     private transient INavigator mNavigator;
@@ -60,6 +70,7 @@ public class DeckListSV extends StatefulView<Activity> implements RequireCompone
     private transient RxDisposer mRxDisposer;
     private transient DeckChangeNotifier mDeckChangeNotifier;
     private transient PagedDeckItemsCmd mPagedDeckItemsCmd;
+    private transient DeckQueryCmd mDeckQueryCmd;
 
     private transient PublishSubject<String> mSearchStringSubject;
     private transient TextWatcher mSearchTextWatcher;
@@ -82,6 +93,7 @@ public class DeckListSV extends StatefulView<Activity> implements RequireCompone
         mRxDisposer = mSvProvider.get(RxDisposer.class);
         mDeckChangeNotifier = mSvProvider.get(DeckChangeNotifier.class);
         mPagedDeckItemsCmd = mSvProvider.get(PagedDeckItemsCmd.class);
+        mDeckQueryCmd = mSvProvider.get(DeckQueryCmd.class);
         mPagedDeckItemsCmd.refresh();
         if (mSearchStringSubject == null) {
             mSearchStringSubject = PublishSubject.create();
@@ -153,10 +165,10 @@ public class DeckListSV extends StatefulView<Activity> implements RequireCompone
                 );
         mRxDisposer
                 .add("createView_onItemAdded",
-                        mDeckChangeNotifier.getAddedDeckFlow()
+                        mDeckChangeNotifier.getAddedDecksFlow()
                                 .observeOn(AndroidSchedulers.mainThread())
-                                .subscribe(deck -> {
-                                    mDeckRecyclerViewAdapter.notifyItemAdded(deck);
+                                .subscribe(decks -> {
+                                    mDeckRecyclerViewAdapter.notifyItemsAdded(decks);
                                     recyclerView.scrollToPosition(0);
                                 }));
         mRxDisposer
@@ -175,6 +187,49 @@ public class DeckListSV extends StatefulView<Activity> implements RequireCompone
                         mDeckChangeNotifier
                                 .getDeletedDeckFlow().observeOn(AndroidSchedulers.mainThread())
                                 .subscribe(mDeckRecyclerViewAdapter::notifyItemDeleted));
+        Set<Long> countChangedDeckIds = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        mRxDisposer
+                .add("createView_onCardCountChanged",
+                        Flowable.merge(
+                                mDeckChangeNotifier.getAddedDecksFlow()
+                                        .map(decks -> {
+                                            List<Long> deckIds = new ArrayList<>(decks.size());
+                                            for (Deck deck : decks) {
+                                                deckIds.add(deck.id);
+                                            }
+                                            return deckIds;
+                                        }),
+                                mDeckChangeNotifier.getAddedCardsFlow()
+                                        .map(cards -> {
+                                            List<Long> deckIds = new ArrayList<>();
+                                            for (Card card : cards) {
+                                                deckIds.add(card.deckId);
+                                            }
+                                            return deckIds;
+                                        }),
+                                mDeckChangeNotifier.getDeletedCardFlow()
+                                        .map(card -> Collections.singletonList(card.deckId)),
+                                mDeckChangeNotifier.getMovedCardFlow()
+                                        .map(moveCardEvent -> Arrays.asList(moveCardEvent.getSourceDeck().id,
+                                                moveCardEvent.getDestinationDeck().id)))
+                                .doOnNext(countChangedDeckIds::addAll)
+                                // bulk add/delete/move is counted at most once per period, re-query true counts
+                                // so the list never drifts from the database
+                                .throttleLatest(CARD_COUNT_COALESCE_MILLIS, TimeUnit.MILLISECONDS)
+                                .concatMapSingle(ignored -> {
+                                    List<Long> deckIds = new ArrayList<>();
+                                    Iterator<Long> iterator = countChangedDeckIds.iterator();
+                                    while (iterator.hasNext()) {
+                                        Long deckId = iterator.next();
+                                        iterator.remove();
+                                        if (deckId != null) {
+                                            deckIds.add(deckId);
+                                        }
+                                    }
+                                    return mDeckQueryCmd.countCardsByDeckIds(deckIds);
+                                })
+                                .observeOn(AndroidSchedulers.mainThread())
+                                .subscribe(mDeckRecyclerViewAdapter::notifyCardCountChanged));
 
         return rootLayout;
     }
@@ -26,10 +26,12 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import m.co.rh.id.a_flash_deck.R;
 import m.co.rh.id.a_flash_deck.app.provider.command.PagedDeckItemsCmd;
 import m.co.rh.id.a_flash_deck.base.entity.Deck;
+import m.co.rh.id.a_flash_deck.base.model.DeckWithCount;
 import m.co.rh.id.anavigator.StatefulView;
 import m.co.rh.id.anavigator.component.INavigator;
 
@@ -73,8 +75,8 @@ public class DeckRecyclerViewAdapter extends RecyclerView.Adapter<RecyclerView.V
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
         if (holder instanceof ItemViewHolder) {
-            ArrayList<Deck> itemArrayList = mPagedDeckItemsCmd.getAllDeckItems();
-            Deck item = itemArrayList.get(position);
+            ArrayList<DeckWithCount> itemArrayList = mPagedDeckItemsCmd.getAllDeckItems();
+            DeckWithCount item = itemArrayList.get(position);
             ItemViewHolder itemViewHolder = (ItemViewHolder) holder;
             itemViewHolder.setItem(item);
         }
@@ -103,25 +105,47 @@ public class DeckRecyclerViewAdapter extends RecyclerView.Adapter<RecyclerView.V
         return mPagedDeckItemsCmd.getAllDeckItems().size() == 0;
     }
 
-    public void notifyItemAdded(Deck deck) {
-        int existingIdx = findDeck(deck);
-        if (existingIdx == -1) {
+    public void notifyItemsAdded(List<Deck> decks) {
+        List<DeckWithCount> newDecks = new ArrayList<>(decks.size());
+        for (Deck deck : decks) {
+            if (findDeck(deck) == -1) {
+                // card count of new deck is queried by the deck list after it is added
+                DeckWithCount deckWithCount = new DeckWithCount();
+                deckWithCount.deck = deck;
+                newDecks.add(deckWithCount);
+            }
+        }
+        if (!newDecks.isEmpty()) {
             mPagedDeckItemsCmd.getAllDeckItems()
-                    .add(0, deck);
-            notifyItemInserted(0);
+                    .addAll(0, newDecks);
+            notifyItemRangeInserted(0, newDecks.size());
         }
     }
 
     public void notifyItemUpdated(Deck deck) {
         int existingIdx = findDeck(deck);
         if (existingIdx != -1) {
-            ArrayList<Deck> decks = mPagedDeckItemsCmd.getAllDeckItems();
-            decks.remove(existingIdx);
-            decks.add(existingIdx, deck);
+            mPagedDeckItemsCmd.getAllDeckItems().get(existingIdx).deck = deck;
             notifyItemChanged(existingIdx);
         }
     }
 
+    /**
+     * @param cardCounts current card count keyed by deck id
+     */
+    public void notifyCardCountChanged(Map<Long, Integer> cardCounts) {
+        ArrayList<DeckWithCount> decks = mPagedDeckItemsCmd.getAllDeckItems();
+        int size = decks.size();
+        for (int i = 0; i < size; i++) {
+            DeckWithCount deckWithCount = decks.get(i);
+            Integer cardCount = cardCounts.get(deckWithCount.deck.id);
+            if (cardCount != null && cardCount != deckWithCount.cardCount) {
+                deckWithCount.cardCount = cardCount;
+                notifyItemChanged(i);
+            }
+        }
+    }
+
     public void notifyItemDeleted(Deck deck) {
         int removedIdx = findDeck(deck);
         if (removedIdx != -1) {
@@ -141,12 +165,12 @@ public class DeckRecyclerViewAdapter extends RecyclerView.Adapter<RecyclerView.V
     }
 
     private int findDeck(Deck deck) {
-        ArrayList<Deck> decks =
+        ArrayList<DeckWithCount> decks =
                 mPagedDeckItemsCmd.getAllDeckItems();
         int size = decks.size();
         int removedIdx = -1;
         for (int i = 0; i < size; i++) {
-            if (deck.id.equals(decks.get(i).id)) {
+            if (deck.id.equals(decks.get(i).deck.id)) {
                 removedIdx = i;
                 break;
             }
@@ -171,9 +195,9 @@ public class DeckRecyclerViewAdapter extends RecyclerView.Adapter<RecyclerView.V
             mDeckItemSV.setOnSelectListener(this);
         }
 
-        public void setItem(Deck deck) {
-            mDeckItemSV.setDeck(deck);
-            if (mPagedDeckItemsCmd.isSelected(deck)) {
+        public void setItem(DeckWithCount deckWithCount) {
+            mDeckItemSV.setDeck(deckWithCount.deck, deckWithCount.cardCount);
+            if (mPagedDeckItemsCmd.isSelected(deckWithCount.deck)) {
                 select();
             } else {
                 unSelect();
@@ -19,10 +19,16 @@ package m.co.rh.id.a_flash_deck.base;
 
 import static org.junit.Assert.assertEquals;
 
+import android.util.JsonReader;
+import android.util.JsonWriter;
+
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.Arrays;
 import java.util.Date;
 
@@ -98,4 +104,48 @@ public class JsonModelSerializeTest {
 
         assertEquals(deckModel, deserializedDeckModel);
     }
+
+    @Test
+    public void stream_serialize_deserialize_deckModel() throws JSONException, IOException {
+        Date date = new Date();
+
+        Deck deck = new Deck();
+        deck.id = 1L;
+        deck.name = "test deck";
+        deck.createdDateTime = date;
+        deck.updatedDateTime = date;
+
+        Card card = new Card();
+        card.id = 1L;
+        card.deckId = 1L;
+        card.ordinal = 1;
+        card.question = "this is question\nwith \"quote\"";
+        card.answer = "this is answer";
+        card.questionImage = "image.jpg";
+        card.isReversibleQA = true;
+
+        Card card2 = new Card();
+        card2.id = 2L;
+        card2.deckId = 1L;
+        card2.ordinal = 2;
+        card2.question = "this is question 2";
+        card2.answer = "this is answer 2";
+
+        DeckModel deckModel = new DeckModel(deck, Arrays.asList(card, card2));
+
+        // streamed output must be readable by JSONObject based parser
+        StringWriter stringWriter = new StringWriter();
+        JsonWriter jsonWriter = new JsonWriter(stringWriter);
+        deckModel.toJson(jsonWriter);
+        jsonWriter.flush();
+        DeckModel fromStreamedJson = new DeckModel();
+        fromStreamedJson.fromJson(new JSONObject(stringWriter.toString()));
+        assertEquals(deckModel, fromStreamedJson);
+
+        // JSONObject output must be readable by stream based parser
+        JsonReader jsonReader = new JsonReader(new StringReader(deckModel.toJson().toString()));
+        DeckModel fromJsonObject = new DeckModel();
+        fromJsonObject.fromJson(jsonReader);
+        assertEquals(deckModel, fromJsonObject);
+    }
 }
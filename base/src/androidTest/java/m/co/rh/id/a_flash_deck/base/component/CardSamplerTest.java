@@ -0,0 +1,141 @@
+/*
+ *     Copyright (C) 2021-2026 Ruby Hartono
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package m.co.rh.id.a_flash_deck.base.component;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import m.co.rh.id.a_flash_deck.base.dao.DeckDao;
+import m.co.rh.id.a_flash_deck.base.entity.Card;
+import m.co.rh.id.a_flash_deck.base.entity.Deck;
+import m.co.rh.id.a_flash_deck.base.room.AppDatabase;
+import m.co.rh.id.aprovider.Provider;
+import m.co.rh.id.aprovider.ProviderModule;
+import m.co.rh.id.aprovider.ProviderRegistry;
+
+@RunWith(AndroidJUnit4.class)
+public class CardSamplerTest {
+    private AppDatabase mAppDatabase;
+    private Provider testProvider;
+    private DeckDao mDeckDao;
+    private CardSampler mCardSampler;
+
+    @Before
+    public void beforeTest() {
+        Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        mAppDatabase = Room.inMemoryDatabaseBuilder(appContext, AppDatabase.class).build();
+        testProvider = Provider.createProvider(appContext, new ProviderModule() {
+            @Override
+            public void provides(ProviderRegistry providerRegistry, Provider provider) {
+                providerRegistry.register(DeckDao.class, mAppDatabase::deckDao);
+                providerRegistry.register(CardSampler.class, () -> new CardSampler(provider));
+            }
+
+            @Override
+            public void dispose(Provider provider) {
+
+            }
+        });
+        mDeckDao = testProvider.get(DeckDao.class);
+        mCardSampler = testProvider.get(CardSampler.class);
+    }
+
+    @After
+    public void afterTest() {
+        testProvider.dispose();
+        mAppDatabase.close();
+    }
+
+    @Test
+    public void permute_coversEveryIndexOnce() {
+        for (int size : new int[]{1, 2, 3, 5, 16, 17, 100, 1_000}) {
+            Set<Integer> result = new HashSet<>();
+            for (int i = 0; i < size; i++) {
+                int value = CardSampler.permute(i, size, 42L);
+                assertTrue(value >= 0 && value < size);
+                result.add(value);
+            }
+            assertEquals(size, result.size());
+        }
+    }
+
+    @Test
+    public void shuffledCard_returnsEveryCardOfDecksOnce() {
+        Deck first = insertDeck("first");
+        Deck second = insertDeck("second");
+        Deck empty = insertDeck("empty");
+        for (int i = 0; i < 7; i++) {
+            insertCard(first, i);
+        }
+        for (int i = 0; i < 5; i++) {
+            insertCard(second, i);
+        }
+        List<Long> deckIds = Arrays.asList(first.id, empty.id, second.id);
+        assertEquals(12, mCardSampler.countCards(deckIds));
+        int[] cardCounts = mCardSampler.countCardsPerDeck(deckIds);
+        assertArrayEquals(new int[]{7, 0, 5}, cardCounts);
+
+        Set<Long> cardIds = new HashSet<>();
+        for (int i = 0; i < 12; i++) {
+            Card card = mCardSampler.shuffledCard(deckIds, 7L, i);
+            assertNotNull(card);
+            assertEquals(card.id, mCardSampler.shuffledCard(deckIds, cardCounts, 7L, i).id);
+            cardIds.add(card.id);
+        }
+        assertEquals(12, cardIds.size());
+        assertNull(mCardSampler.shuffledCard(deckIds, 7L, 12));
+
+        assertNull(mCardSampler.randomCard(empty.id));
+        assertEquals(second.id, mCardSampler.randomCard(second.id).deckId);
+    }
+
+    private Deck insertDeck(String name) {
+        Deck deck = new Deck();
+        deck.name = name;
+        mDeckDao.insertDeck(deck);
+        return deck;
+    }
+
+    private void insertCard(Deck deck, int ordinal) {
+        Card card = new Card();
+        card.deckId = deck.id;
+        card.ordinal = ordinal;
+        card.question = "question " + ordinal;
+        card.answer = "answer " + ordinal;
+        mDeckDao.insertCard(card);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ *     Copyright (C) 2021-2026 Ruby Hartono
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package m.co.rh.id.a_flash_deck.base.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import m.co.rh.id.a_flash_deck.base.entity.Card;
+import m.co.rh.id.a_flash_deck.base.entity.Deck;
+import m.co.rh.id.a_flash_deck.base.model.DeckModel;
+import m.co.rh.id.a_flash_deck.base.room.AppDatabase;
+
+/**
+ * Verify card lookups by deck and by media name are served by the card indices,
+ * and print their timing to logcat with tag {@link #TAG}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CardIndexQueryPlanTest {
+    private static final String TAG = "CardIndexQueryPlan";
+    private static final int DECK_COUNT = 20;
+    private static final int CARD_PER_DECK = 2_000;
+
+    private AppDatabase mAppDatabase;
+    private DeckDao mDeckDao;
+    private List<Deck> mDecks;
+
+    @Before
+    public void beforeTest() {
+        Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        mAppDatabase = Room.inMemoryDatabaseBuilder(appContext, AppDatabase.class).build();
+        mDeckDao = mAppDatabase.deckDao();
+        List<DeckModel> deckModels = new ArrayList<>(DECK_COUNT);
+        for (int d = 0; d < DECK_COUNT; d++) {
+            Deck deck = new Deck();
+            deck.name = "deck " + d;
+            deck.createdDateTime = new Date();
+            deck.updatedDateTime = deck.createdDateTime;
+            List<Card> cardList = new ArrayList<>(CARD_PER_DECK);
+            for (int i = 0; i < CARD_PER_DECK; i++) {
+                Card card = new Card();
+                card.ordinal = i;
+                card.question = "question " + i;
+                card.answer = "answer " + i;
+                card.questionImage = "qi-" + d + "-" + i;
+                card.answerImage = "ai-" + d + "-" + i;
+                card.questionVoice = "qv-" + d + "-" + i;
+                cardList.add(card);
+            }
+            deckModels.add(new DeckModel(deck, cardList));
+        }
+        mDeckDao.importDecks(deckModels);
+        mDecks = new ArrayList<>(DECK_COUNT);
+        for (DeckModel deckModel : deckModels) {
+            mDecks.add(deckModel.getDeck());
+        }
+    }
+
+    @After
+    public void afterTest() {
+        mAppDatabase.close();
+    }
+
+    @Test
+    public void deckQueries_useDeckIdOrdinalIndex() {
+        long deckId = mDecks.get(DECK_COUNT / 2).id;
+        String index = "index_card_deck_id_ordinal";
+        assertPlanUsesIndex("SELECT * FROM card WHERE deck_id=" + deckId + " ORDER BY ordinal", index);
+        assertPlanUsesIndex("SELECT * FROM card WHERE deck_id=" + deckId + " ORDER BY ordinal ASC LIMIT 10", index);
+        assertPlanUsesIndex("SELECT COUNT(*) FROM card WHERE deck_id = " + deckId, index);
+        assertPlanUsesIndex("SELECT * FROM card WHERE deck_id IN (" + deckId + "," + mDecks.get(0).id + ")", index);
+        assertPlanHasNoSortStep("SELECT * FROM card WHERE deck_id=" + deckId + " ORDER BY ordinal");
+
+        long start = System.nanoTime();
+        for (Deck deck : mDecks) {
+            assertEquals(CARD_PER_DECK, mDeckDao.getCardByDeckId(deck.id).size());
+            assertEquals(CARD_PER_DECK, mDeckDao.countCardByDeckId(deck.id));
+            assertEquals(10, mDeckDao.getCardByDeckIdWithLimit(deck.id, 10).size());
+        }
+        assertEquals(2 * CARD_PER_DECK,
+                mDeckDao.getCardByDeckIds(Arrays.asList(mDecks.get(0).id, deckId)).size());
+        Log.i(TAG, "deck queries: " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    @Test
+    public void mediaQueries_useMediaIndices() {
+        assertPlanUsesIndex("SELECT * FROM card WHERE question_image='qi-1-1'", "index_card_question_image");
+        assertPlanUsesIndex("SELECT * FROM card WHERE answer_image='ai-1-1'", "index_card_answer_image");
+        assertPlanUsesIndex("SELECT * FROM card WHERE question_voice='qv-1-1'", "index_card_question_voice");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < CARD_PER_DECK; i++) {
+            assertNotNull(mDeckDao.findCardByQuestionImage("qi-3-" + i));
+            assertNotNull(mDeckDao.findCardByAnswerImage("ai-3-" + i));
+            assertNotNull(mDeckDao.findCardByQuestionVoice("qv-3-" + i));
+        }
+        Log.i(TAG, "media lookups: " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private String queryPlan(String sql) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = mAppDatabase.query("EXPLAIN QUERY PLAN " + sql, null)) {
+            int detailIndex = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detailIndex)).append('\n');
+            }
+        }
+        Log.d(TAG, sql + "\n" + plan);
+        return plan.toString();
+    }
+
+    private void assertPlanUsesIndex(String sql, String indexName) {
+        String plan = queryPlan(sql);
+        assertTrue("expected " + indexName + " for " + sql + " but was " + plan,
+                plan.contains(indexName));
+    }
+
+    private void assertPlanHasNoSortStep(String sql) {
+        String plan = queryPlan(sql);
+        assertTrue("unexpected sort for " + sql + ": " + plan,
+                !plan.contains("TEMP B-TREE"));
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *     Copyright (C) 2021-2026 Ruby Hartono
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package m.co.rh.id.a_flash_deck.base.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import m.co.rh.id.a_flash_deck.base.entity.Card;
+import m.co.rh.id.a_flash_deck.base.entity.Deck;
+import m.co.rh.id.a_flash_deck.base.model.DeckModel;
+import m.co.rh.id.a_flash_deck.base.room.AppDatabase;
+
+/**
+ * Compare single row insert against batched insert used by {@link DeckDao#importDecks(List)}.
+ * Result is printed to logcat with tag {@link #TAG},
+ * the test fails when batched insert is more than twice as slow as single row insert in one transaction.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DeckDaoImportBenchmarkTest {
+    private static final String TAG = "DeckDaoImportBenchmark";
+    private static final int CARD_COUNT = 40_000;
+
+    private AppDatabase mAppDatabase;
+    private DeckDao mDeckDao;
+
+    @Before
+    public void beforeTest() {
+        Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        mAppDatabase = Room.inMemoryDatabaseBuilder(appContext, AppDatabase.class).build();
+        mDeckDao = mAppDatabase.deckDao();
+    }
+
+    @After
+    public void afterTest() {
+        mAppDatabase.close();
+    }
+
+    @Test
+    public void importDecks_singleRowVsBatch() {
+        DeckModel singleRowModel = createDeckModel("single row");
+        long start = System.nanoTime();
+        mAppDatabase.runInTransaction(() -> {
+            Deck deck = singleRowModel.getDeck();
+            deck.id = mDeckDao.insert(deck);
+            for (Card card : singleRowModel.getCardList()) {
+                card.deckId = deck.id;
+                card.id = mDeckDao.insert(card);
+            }
+        });
+        long singleRowNanos = System.nanoTime() - start;
+
+        DeckModel batchModel = createDeckModel("batch");
+        List<Integer> progress = new ArrayList<>();
+        start = System.nanoTime();
+        mDeckDao.importDecks(Collections.singletonList(batchModel),
+                (importedCards, totalCards) -> progress.add(importedCards));
+        long batchNanos = System.nanoTime() - start;
+
+        Log.i(TAG, "single row insert: " + rowsPerSecond(singleRowNanos) + " rows/sec");
+        Log.i(TAG, "batch insert: " + rowsPerSecond(batchNanos) + " rows/sec");
+        // generous bound, batch insert is expected to be faster, this only catches it becoming much slower
+        assertTrue("batch insert took " + batchNanos / 1_000_000 + " ms, single row took "
+                        + singleRowNanos / 1_000_000 + " ms",
+                batchNanos <= singleRowNanos * 2);
+
+        Deck batchDeck = batchModel.getDeck();
+        assertNotNull(batchDeck.id);
+        assertEquals(CARD_COUNT, mDeckDao.countCardByDeckId(batchDeck.id));
+        Set<Long> cardIds = new HashSet<>();
+        for (Card card : batchModel.getCardList()) {
+            assertNotNull(card.id);
+            assertEquals(batchDeck.id, card.deckId);
+            cardIds.add(card.id);
+        }
+        assertEquals(CARD_COUNT, cardIds.size());
+        int expectedBatches = (CARD_COUNT + DeckDao.INSERT_BATCH_SIZE - 1) / DeckDao.INSERT_BATCH_SIZE;
+        assertEquals(expectedBatches, progress.size());
+        assertEquals(CARD_COUNT, (int) progress.get(progress.size() - 1));
+    }
+
+    private DeckModel createDeckModel(String name) {
+        Deck deck = new Deck();
+        deck.name = name;
+        deck.createdDateTime = new Date();
+        deck.updatedDateTime = deck.createdDateTime;
+        List<Card> cardList = new ArrayList<>(CARD_COUNT);
+        for (int i = 0; i < CARD_COUNT; i++) {
+            Card card = new Card();
+            card.ordinal = i;
+            card.question = "question " + i;
+            card.answer = "answer " + i;
+            cardList.add(card);
+        }
+        return new DeckModel(deck, cardList);
+    }
+
+    private static long rowsPerSecond(long nanos) {
+        return CARD_COUNT * 1_000_000_000L / Math.max(1, nanos);
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ *     Copyright (C) 2021-2026 Ruby Hartono
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package m.co.rh.id.a_flash_deck.base.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.paging.PagingSource;
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import kotlin.coroutines.EmptyCoroutineContext;
+import kotlinx.coroutines.BuildersKt;
+
+import m.co.rh.id.a_flash_deck.base.entity.Card;
+import m.co.rh.id.a_flash_deck.base.entity.Deck;
+import m.co.rh.id.a_flash_deck.base.model.DeckModel;
+import m.co.rh.id.a_flash_deck.base.model.DeckWithCount;
+import m.co.rh.id.a_flash_deck.base.room.AppDatabase;
+
+/**
+ * Full text search of cards and decks.
+ * Search timing on a large library is printed to logcat with tag {@link #TAG}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DeckDaoSearchTest {
+    private static final String TAG = "DeckDaoSearch";
+
+    private AppDatabase mAppDatabase;
+    private DeckDao mDeckDao;
+
+    @Before
+    public void beforeTest() {
+        Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        mAppDatabase = Room.inMemoryDatabaseBuilder(appContext, AppDatabase.class).build();
+        mDeckDao = mAppDatabase.deckDao();
+    }
+
+    @After
+    public void afterTest() {
+        mAppDatabase.close();
+    }
+
+    @Test
+    public void toMatchQuery_prefixTermsPerWord() {
+        assertEquals("hello* world*", DeckDao.toMatchQuery("Hello, World!", null));
+        assertEquals("question:or* question:not*", DeckDao.toMatchQuery("OR NOT", "question"));
+        assertNull(DeckDao.toMatchQuery("?!", null));
+        assertNull(DeckDao.toMatchQuery(null, null));
+    }
+
+    @Test
+    public void searchCard_ranksQuestionThenAnswerThenDeckName() throws InterruptedException {
+        Deck animal = insertDeck("Animal");
+        Deck capital = insertDeck("Categories of Paris region");
+        Card answerMatch = insertCard(animal, 0, "What purrs?", "A cat");
+        Card questionMatch = insertCard(animal, 1, "Caterpillar becomes?", "Butterfly");
+        Card noMatch = insertCard(animal, 2, "Dog sound?", "Woof");
+        Card deckNameMatch = insertCard(capital, 0, "France", "Paris");
+
+        List<Card> result = searchCard(null, "cat");
+        assertEquals(3, result.size());
+        assertEquals(questionMatch.id, result.get(0).id);
+        assertEquals(answerMatch.id, result.get(1).id);
+        assertEquals(deckNameMatch.id, result.get(2).id);
+        assertTrue(searchCard(null, "woof").contains(noMatch));
+
+        // deck filter applies to question and answer, deck name match still included
+        List<Card> capitalResult = searchCard(capital.id, "cat");
+        assertEquals(Collections.singletonList(deckNameMatch), capitalResult);
+
+        assertEquals(Collections.singletonList(capital), mDeckDao.searchDeck("cate par"));
+    }
+
+    @Test
+    public void searchCard_followsUpdateAndDelete() throws InterruptedException {
+        Deck deck = insertDeck("Deck");
+        Card card = insertCard(deck, 0, "Apple", "Fruit");
+        assertEquals(1, searchCard(null, "appl").size());
+
+        card.question = "Banana";
+        mDeckDao.updateCard(card);
+        assertTrue(searchCard(null, "appl").isEmpty());
+        assertEquals(1, searchCard(null, "ban").size());
+
+        mDeckDao.deleteCard(card);
+        assertTrue(searchCard(null, "ban").isEmpty());
+
+        deck.name = "Renamed";
+        mDeckDao.updateDeck(deck);
+        assertEquals(1, mDeckDao.searchDeck("ren").size());
+        assertTrue(mDeckDao.searchDeck("deck").isEmpty());
+    }
+
+    @Test
+    public void searchCard_pagesCoverAllResultsOnce() throws InterruptedException {
+        Deck deck = insertDeck("Paging");
+        for (int i = 0; i < 25; i++) {
+            // same ordinal on purpose, id breaks the tie
+            insertCard(deck, i / 5, i % 2 == 0 ? "page question " + i : "other " + i, "page answer");
+        }
+
+        List<Card> pagedCards = loadAll(mDeckDao.searchCardPagingSource(null, "page"), 4);
+        assertEquals(loadAll(mDeckDao.searchCardPagingSource(null, "page"), 100), pagedCards);
+        assertEquals(25, new HashSet<>(pagedCards).size());
+        assertEquals(25, pagedCards.size());
+    }
+
+    @Test
+    public void getDeckWithLimit_countsCardsPerDeck() {
+        Deck empty = insertDeck("A empty");
+        Deck three = insertDeck("B three");
+        Deck one = insertDeck("C one");
+        for (int i = 0; i < 3; i++) {
+            insertCard(three, i, "question " + i, "answer " + i);
+        }
+        insertCard(one, 0, "question", "answer");
+
+        List<DeckWithCount> firstPage = mDeckDao.getDeckWithLimit(2);
+        assertEquals(2, firstPage.size());
+        assertEquals(empty, firstPage.get(0).deck);
+        assertEquals(0, firstPage.get(0).cardCount);
+        assertEquals(three, firstPage.get(1).deck);
+        assertEquals(3, firstPage.get(1).cardCount);
+
+        List<DeckWithCount> nextPage = mDeckDao.getDeckAfter(three.name, three.id, 2);
+        assertEquals(1, nextPage.size());
+        assertEquals(one, nextPage.get(0).deck);
+        assertEquals(1, nextPage.get(0).cardCount);
+
+        List<DeckWithCount> searchResult = mDeckDao.searchDeck("three", null, 10);
+        assertEquals(1, searchResult.size());
+        assertEquals(3, searchResult.get(0).cardCount);
+
+        List<DeckWithCount> byIds = mDeckDao.findDeckWithCountByIds(Arrays.asList(one.id, empty.id, -1L));
+        assertEquals(2, byIds.size());
+        for (DeckWithCount deckWithCount : byIds) {
+            assertEquals(deckWithCount.deck.equals(one) ? 1 : 0, deckWithCount.cardCount);
+        }
+    }
+
+    @Test
+    public void searchCard_largeLibrary() throws InterruptedException {
+        int deckCount = 10;
+        int cardPerDeck = 10_000;
+        List<DeckModel> deckModels = new ArrayList<>();
+        for (int d = 0; d < deckCount; d++) {
+            Deck deck = new Deck();
+            deck.name = "deck " + d;
+            deck.createdDateTime = new Date();
+            deck.updatedDateTime = deck.createdDateTime;
+            List<Card> cardList = new ArrayList<>(cardPerDeck);
+            for (int i = 0; i < cardPerDeck; i++) {
+                Card card = new Card();
+                card.ordinal = i;
+                card.question = "question number " + i + " of deck " + d;
+                card.answer = "answer word" + (i % 100);
+                cardList.add(card);
+            }
+            deckModels.add(new DeckModel(deck, cardList));
+        }
+        mDeckDao.importDecks(deckModels);
+
+        long start = System.nanoTime();
+        List<Card> result = loadAll(mDeckDao.searchCardPagingSource(null, "word42"), 1_000);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        Log.i(TAG, "search over " + deckCount * cardPerDeck + " cards: " + elapsedMillis + " ms");
+        assertEquals(deckCount * cardPerDeck / 100, result.size());
+    }
+
+    private List<Card> searchCard(Long deckId, String search) throws InterruptedException {
+        return loadAll(mDeckDao.searchCardPagingSource(deckId, search), 4);
+    }
+
+    /**
+     * Load every page of the paging source in order, the way the pager appends them
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Card> loadAll(PagingSource<Integer, Card> pagingSource, int pageSize)
+            throws InterruptedException {
+        List<Card> cards = new ArrayList<>();
+        Integer key = null;
+        do {
+            PagingSource.LoadParams<Integer> params = key == null ?
+                    new PagingSource.LoadParams.Refresh<>(null, pageSize, false) :
+                    new PagingSource.LoadParams.Append<>(key, pageSize, false);
+            PagingSource.LoadResult<Integer, Card> loadResult = BuildersKt.runBlocking(EmptyCoroutineContext.INSTANCE,
+                    (scope, continuation) -> pagingSource.load(params, continuation));
+            PagingSource.LoadResult.Page<Integer, Card> page = (PagingSource.LoadResult.Page<Integer, Card>) loadResult;
+            cards.addAll(page.getData());
+            key = page.getNextKey();
+        } while (key != null);
+        return cards;
+    }
+
+    private Deck insertDeck(String name) {
+        Deck deck = new Deck();
+        deck.name = name;
+        mDeckDao.insertDeck(deck);
+        return deck;
+    }
+
+    private Card insertCard(Deck deck, int ordinal, String question, String answer) {
+        Card card = new Card();
+        card.deckId = deck.id;
+        card.ordinal = ordinal;
+        card.question = question;
+        card.answer = answer;
+        mDeckDao.insertCard(card);
+        return card;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ *     Copyright (C) 2021-2026 Ruby Hartono
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package m.co.rh.id.a_flash_deck.base.component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import m.co.rh.id.a_flash_deck.base.dao.DeckDao;
+import m.co.rh.id.a_flash_deck.base.entity.Card;
+import m.co.rh.id.aprovider.Provider;
+import m.co.rh.id.aprovider.ProviderValue;
+
+/**
+ * Pick cards of decks by index, only the picked card row is loaded.
+ * Cards are indexed in the order of the given deck ids, then by card ordinal within each deck.
+ * Must be called from background thread.
+ */
+public class CardSampler {
+    private static final int FEISTEL_ROUNDS = 4;
+
+    private final ProviderValue<DeckDao> mDeckDao;
+
+    public CardSampler(Provider provider) {
+        mDeckDao = provider.lazyGet(DeckDao.class);
+    }
+
+    /**
+     * @return random card of the deck, null if deck has no card
+     */
+    public Card randomCard(long deckId) {
+        return randomCard(Collections.singletonList(deckId));
+    }
+
+    /**
+     * @return random card of the decks, null if decks have no card
+     */
+    public Card randomCard(List<Long> deckIds) {
+        int[] cardCounts = countCardsPerDeck(deckIds);
+        int total = countCards(cardCounts);
+        if (total == 0) {
+            return null;
+        }
+        return getCardAt(deckIds, cardCounts, ThreadLocalRandom.current().nextInt(total));
+    }
+
+    public int countCards(List<Long> deckIds) {
+        return countCards(countCardsPerDeck(deckIds));
+    }
+
+    /**
+     * @param cardCounts result of {@link #countCardsPerDeck(List)}
+     */
+    public static int countCards(int[] cardCounts) {
+        int sum = 0;
+        for (int cardCount : cardCounts) {
+            sum += cardCount;
+        }
+        return sum;
+    }
+
+    /**
+     * @return card count of each deck in the order of deckIds
+     */
+    public int[] countCardsPerDeck(List<Long> deckIds) {
+        DeckDao deckDao = mDeckDao.get();
+        int size = deckIds.size();
+        int[] cardCounts = new int[size];
+        for (int i = 0; i < size; i++) {
+            cardCounts[i] = deckDao.countCardByDeckId(deckIds.get(i));
+        }
+        return cardCounts;
+    }
+
+    /**
+     * Card at position of the shuffle identified by seed.
+     * Position 0 until {@link #countCards(List)} - 1 of the same seed return every card once,
+     * as long as the cards of the decks are not changed.
+     *
+     * @return null if position is outside the cards of the decks
+     */
+    public Card shuffledCard(List<Long> deckIds, long seed, int position) {
+        return shuffledCard(deckIds, countCardsPerDeck(deckIds), seed, position);
+    }
+
+    /**
+     * Same as {@link #shuffledCard(List, long, int)} with card counts already queried
+     * by {@link #countCardsPerDeck(List)}, so the caller doesn't count the decks twice
+     */
+    public Card shuffledCard(List<Long> deckIds, int[] cardCounts, long seed, int position) {
+        int total = countCards(cardCounts);
+        if (position < 0 || position >= total) {
+            return null;
+        }
+        return getCardAt(deckIds, cardCounts, permute(position, total, seed));
+    }
+
+    private Card getCardAt(List<Long> deckIds, int[] cardCounts, int index) {
+        int size = cardCounts.length;
+        for (int i = 0; i < size; i++) {
+            if (index < cardCounts[i]) {
+                return mDeckDao.get().getCardByDeckIdAtOffset(deckIds.get(i), index);
+            }
+            index -= cardCounts[i];
+        }
+        return null;
+    }
+
+    /**
+     * Seeded permutation of [0, size) without materializing it,
+     * a feistel network over the smallest even bit width that covers size,
+     * values that fall outside size are walked through the network again until they fit.
+     */
+    static int permute(int index, int size, long seed) {
+        int bits = Math.max(2, 32 - Integer.numberOfLeadingZeros(size - 1));
+        if ((bits & 1) == 1) {
+            bits++;
+        }
+        int halfBits = bits / 2;
+        long halfMask = (1L << halfBits) - 1;
+        long value = index;
+        do {
+            long left = value >>> halfBits;
+            long right = value & halfMask;
+            for (int round = 0; round < FEISTEL_ROUNDS; round++) {
+                long nextRight = left ^ (mix(right, seed, round) & halfMask);
+                left = right;
+                right = nextRight;
+            }
+            value = (left << halfBits) | right;
+        } while (value >= size);
+        return (int) value;
+    }
+
+    private static long mix(long value, long seed, int round) {
+        long hash = seed + value * 0x9E3779B97F4A7C15L + round * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+}
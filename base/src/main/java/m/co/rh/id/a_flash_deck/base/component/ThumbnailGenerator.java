@@ -0,0 +1,196 @@
+/*
+ *     Copyright (C) 2021-2026 Ruby Hartono
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package m.co.rh.id.a_flash_deck.base.component;
+
+import android.net.Uri;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import m.co.rh.id.a_flash_deck.base.provider.FileHelper;
+import m.co.rh.id.alogger.ILogger;
+import m.co.rh.id.aprovider.Provider;
+import m.co.rh.id.aprovider.ProviderValue;
+
+/**
+ * Generate card image thumbnails in parallel on the shared ExecutorService.
+ * Number of workers and total bytes of decoded bitmaps in flight are both bounded.
+ */
+public class ThumbnailGenerator {
+    private static final String TAG = ThumbnailGenerator.class.getName();
+    public static final int DEFAULT_WORKER_COUNT = 3;
+    public static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 24L * 1024 * 1024;
+
+    private final ProviderValue<ExecutorService> mExecutorService;
+    private final ProviderValue<FileHelper> mFileHelper;
+    private final ProviderValue<ILogger> mLogger;
+    private volatile int mWorkerCount;
+    private volatile long mMaxInFlightBytes;
+
+    public ThumbnailGenerator(Provider provider) {
+        mExecutorService = provider.lazyGet(ExecutorService.class);
+        mFileHelper = provider.lazyGet(FileHelper.class);
+        mLogger = provider.lazyGet(ILogger.class);
+        mWorkerCount = DEFAULT_WORKER_COUNT;
+        mMaxInFlightBytes = DEFAULT_MAX_IN_FLIGHT_BYTES;
+    }
+
+    public void setWorkerCount(int workerCount) {
+        mWorkerCount = Math.max(1, workerCount);
+    }
+
+    public void setMaxInFlightBytes(long maxInFlightBytes) {
+        mMaxInFlightBytes = Math.max(1024, maxInFlightBytes);
+    }
+
+    public Batch newBatch() {
+        return new Batch(mWorkerCount, mMaxInFlightBytes);
+    }
+
+    /**
+     * A set of thumbnails to be generated together, can be cancelled while executing
+     */
+    public class Batch {
+        private final int mBatchWorkerCount;
+        private final int mMaxInFlightKb;
+        private final ConcurrentLinkedQueue<ThumbnailRequest> mRequests;
+        private final AtomicBoolean mCancelled;
+        private final AtomicInteger mCreatedCount;
+        private final Semaphore mMemoryBudget;
+
+        private Batch(int workerCount, long maxInFlightBytes) {
+            mBatchWorkerCount = workerCount;
+            mMaxInFlightKb = (int) Math.min(Integer.MAX_VALUE, maxInFlightBytes / 1024);
+            mRequests = new ConcurrentLinkedQueue<>();
+            mCancelled = new AtomicBoolean(false);
+            mCreatedCount = new AtomicInteger();
+            mMemoryBudget = new Semaphore(mMaxInFlightKb, true);
+        }
+
+        public Batch addQuestionImage(String fileName) {
+            if (fileName != null) {
+                mRequests.add(new ThumbnailRequest(fileName, true));
+            }
+            return this;
+        }
+
+        public Batch addAnswerImage(String fileName) {
+            if (fileName != null) {
+                mRequests.add(new ThumbnailRequest(fileName, false));
+            }
+            return this;
+        }
+
+        public void cancel() {
+            mCancelled.set(true);
+        }
+
+        public boolean isCancelled() {
+            return mCancelled.get();
+        }
+
+        /**
+         * Generate all thumbnails and block until done or cancelled.
+         * The calling thread works as one of the workers, so this will not starve
+         * even when the shared executor has no idle thread.
+         * Interrupting the calling thread cancels this batch.
+         *
+         * @return number of thumbnails created
+         */
+        public int execute() {
+            if (mRequests.isEmpty()) {
+                return 0;
+            }
+            int helperCount = Math.min(mBatchWorkerCount, mRequests.size()) - 1;
+            List<Future<?>> helpers = new ArrayList<>(helperCount);
+            ExecutorService executorService = mExecutorService.get();
+            for (int i = 0; i < helperCount; i++) {
+                helpers.add(executorService.submit(this::work));
+            }
+            work();
+            for (Future<?> helper : helpers) {
+                try {
+                    helper.get();
+                } catch (InterruptedException e) {
+                    cancel();
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    mLogger.get().e(TAG, "Thumbnail worker failed", e);
+                }
+            }
+            if (isCancelled()) {
+                mLogger.get().d(TAG, "Thumbnail generation cancelled, created "
+                        + mCreatedCount.get());
+            }
+            return mCreatedCount.get();
+        }
+
+        private void work() {
+            ThumbnailRequest request;
+            while (!isCancelled() && (request = mRequests.poll()) != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    cancel();
+                    return;
+                }
+                FileHelper fileHelper = mFileHelper.get();
+                File imageFile = request.isQuestion ?
+                        fileHelper.getCardQuestionImage(request.fileName) :
+                        fileHelper.getCardAnswerImage(request.fileName);
+                try {
+                    long estimatedBytes = fileHelper.estimateThumbnailBitmapBytes(imageFile);
+                    // a single image bigger than the budget still runs, alone
+                    int permitKb = (int) Math.min(mMaxInFlightKb, Math.max(1, estimatedBytes / 1024));
+                    mMemoryBudget.acquire(permitKb);
+                    try {
+                        Uri uri = Uri.fromFile(imageFile);
+                        if (request.isQuestion) {
+                            fileHelper.createCardQuestionImageThumbnail(uri, request.fileName);
+                        } else {
+                            fileHelper.createCardAnswerImageThumbnail(uri, request.fileName);
+                        }
+                        mCreatedCount.incrementAndGet();
+                    } finally {
+                        mMemoryBudget.release(permitKb);
+                    }
+                } catch (InterruptedException e) {
+                    cancel();
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    mLogger.get().e(TAG, "Failed to create thumbnail for " + request.fileName, e);
+                }
+            }
+        }
+    }
+
+    private static class ThumbnailRequest {
+        private final String fileName;
+        private final boolean isQuestion;
+
+        private ThumbnailRequest(String fileName, boolean isQuestion) {
+            this.fileName = fileName;
+            this.isQuestion = isQuestion;
+        }
+    }
+}
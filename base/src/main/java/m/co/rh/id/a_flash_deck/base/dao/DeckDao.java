@@ -17,6 +17,7 @@
 
 package m.co.rh.id.a_flash_deck.base.dao;
 
+import androidx.paging.PagingSource;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
@@ -25,19 +26,26 @@ import androidx.room.Transaction;
 import androidx.room.Update;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 import java.util.function.Function;
 
 import m.co.rh.id.a_flash_deck.base.entity.Card;
 import m.co.rh.id.a_flash_deck.base.entity.Deck;
 import m.co.rh.id.a_flash_deck.base.model.DeckModel;
+import m.co.rh.id.a_flash_deck.base.model.DeckWithCount;
 
 /**
  * DAO that handles deck and cards
  */
 @Dao
 public abstract class DeckDao {
+    /**
+     * Number of cards inserted per batch when importing
+     */
+    public static final int INSERT_BATCH_SIZE = 500;
 
     @Transaction
     public void insertDeck(Deck deck) {
@@ -61,15 +69,23 @@ public abstract class DeckDao {
         update(deck);
     }
 
+    /**
+     * @return ids of the deleted cards of this deck
+     */
     @Transaction
-    public void deleteDeck(Deck deck) {
+    public List<Long> deleteDeck(Deck deck) {
         if (deck == null) {
-            return;
+            return Collections.emptyList();
         }
+        List<Long> cardIds = findCardIdsByDeckId(deck.id);
         delete(deck);
         deleteCardsByDeckId(deck.id);
+        return cardIds;
     }
 
+    @Query("SELECT id FROM card WHERE deck_id = :deckId")
+    public abstract List<Long> findCardIdsByDeckId(long deckId);
+
     @Query("DELETE FROM card WHERE deck_id = :deckId")
     public abstract void deleteCardsByDeckId(long deckId);
 
@@ -79,28 +95,152 @@ public abstract class DeckDao {
     @Query("SELECT COUNT(*) FROM deck")
     public abstract int countDeck();
 
-    @Query("SELECT * FROM deck ORDER BY name ASC LIMIT :limit")
-    public abstract List<Deck> getDeckWithLimit(int limit);
+    /**
+     * First page of decks ordered by name, each with its card count.
+     * Cards are counted only for decks in the page, through the deck_id index.
+     */
+    @Query("SELECT deck.*, COUNT(card.id) AS card_count FROM " +
+            "(SELECT * FROM deck ORDER BY name ASC, id ASC LIMIT :limit) AS deck " +
+            "LEFT JOIN card ON card.deck_id = deck.id " +
+            "GROUP BY deck.id ORDER BY deck.name ASC, deck.id ASC")
+    public abstract List<DeckWithCount> getDeckWithLimit(int limit);
+
+    /**
+     * Next page of {@link #getDeckWithLimit(int)}, decks ordered after the given name and id
+     */
+    @Query("SELECT deck.*, COUNT(card.id) AS card_count FROM " +
+            "(SELECT * FROM deck WHERE name > :name OR (name = :name AND id > :id) " +
+            "ORDER BY name ASC, id ASC LIMIT :limit) AS deck " +
+            "LEFT JOIN card ON card.deck_id = deck.id " +
+            "GROUP BY deck.id ORDER BY deck.name ASC, deck.id ASC")
+    public abstract List<DeckWithCount> getDeckAfter(String name, long id, int limit);
+
+    /**
+     * Search deck by words prefix in deck name
+     */
+    public List<Deck> searchDeck(String search) {
+        List<DeckWithCount> deckWithCounts = searchDeck(search, null, Integer.MAX_VALUE);
+        List<Deck> deckList = new ArrayList<>(deckWithCounts.size());
+        for (DeckWithCount deckWithCount : deckWithCounts) {
+            deckList.add(deckWithCount.deck);
+        }
+        return deckList;
+    }
 
-    @Query("SELECT * FROM deck WHERE name LIKE '%'||:search||'%' ORDER BY name")
-    public abstract List<Deck> searchDeck(String search);
+    /**
+     * Search deck by words prefix in deck name, one page at a time ordered by name
+     *
+     * @param after last deck of previous page, null for the first page
+     */
+    public List<DeckWithCount> searchDeck(String search, Deck after, int limit) {
+        // matched deck always has a name, so empty name is before any of them
+        String afterName = after == null ? "" : after.name;
+        long afterId = after == null ? Long.MIN_VALUE : after.id;
+        String match = toMatchQuery(search, null);
+        if (match == null) {
+            return searchDeckByName(search, afterName, afterId, limit);
+        }
+        return matchDeck(match, afterName, afterId, limit);
+    }
 
-    @Query("SELECT * FROM card ORDER BY ordinal ASC LIMIT :limit")
+    @Query("SELECT deck.*, COUNT(card.id) AS card_count FROM " +
+            "(SELECT deck.* FROM deck JOIN deck_fts ON deck.id = deck_fts.docid " +
+            "WHERE deck_fts MATCH :match " +
+            "AND (deck.name > :afterName OR (deck.name = :afterName AND deck.id > :afterId)) " +
+            "ORDER BY deck.name, deck.id LIMIT :limit) AS deck " +
+            "LEFT JOIN card ON card.deck_id = deck.id " +
+            "GROUP BY deck.id ORDER BY deck.name, deck.id")
+    abstract List<DeckWithCount> matchDeck(String match, String afterName, long afterId, int limit);
+
+    @Query("SELECT deck.*, COUNT(card.id) AS card_count FROM " +
+            "(SELECT * FROM deck WHERE name LIKE '%'||:search||'%' " +
+            "AND (name > :afterName OR (name = :afterName AND id > :afterId)) " +
+            "ORDER BY name, id LIMIT :limit) AS deck " +
+            "LEFT JOIN card ON card.deck_id = deck.id " +
+            "GROUP BY deck.id ORDER BY deck.name, deck.id")
+    abstract List<DeckWithCount> searchDeckByName(String search, String afterName, long afterId, int limit);
+
+    @Query("SELECT * FROM card ORDER BY ordinal ASC, id ASC LIMIT :limit")
     public abstract List<Card> getCardWithLimit(int limit);
 
-    @Query("SELECT * FROM card WHERE deck_id=:deckId ORDER BY ordinal ASC LIMIT :limit")
+    @Query("SELECT * FROM card WHERE deck_id=:deckId ORDER BY ordinal ASC, id ASC LIMIT :limit")
     public abstract List<Card> getCardByDeckIdWithLimit(long deckId, int limit);
 
+    /**
+     * Single card at offset in the order of {@link #getCardByDeckIdWithLimit(long, int)},
+     * only the deck_id and ordinal index is walked up to the offset
+     */
+    @Query("SELECT * FROM card WHERE deck_id=:deckId ORDER BY ordinal ASC, id ASC LIMIT 1 OFFSET :offset")
+    public abstract Card getCardByDeckIdAtOffset(long deckId, int offset);
+
     @Query("SELECT * FROM card WHERE deck_id=:deckId ORDER BY ordinal")
     public abstract List<Card> getCardByDeckId(long deckId);
 
-    @Query("SELECT * FROM card WHERE question LIKE '%'||:search||'%' " +
-            "OR answer LIKE '%'||:search||'%' ORDER BY ordinal")
-    public abstract List<Card> searchCard(String search);
+    @Query("SELECT * FROM card ORDER BY ordinal ASC, id ASC")
+    public abstract PagingSource<Integer, Card> getCardPagingSource();
+
+    @Query("SELECT * FROM card WHERE deck_id=:deckId ORDER BY ordinal ASC, id ASC")
+    public abstract PagingSource<Integer, Card> getCardByDeckIdPagingSource(long deckId);
+
+    /**
+     * Search card by words prefix in question, answer or its deck name, as paging source.
+     * Question match come first, then answer match, then cards that only match by deck name.
+     *
+     * @param deckId when not null, question and answer match is limited to this deck
+     * @param search user input, each word must match
+     */
+    public PagingSource<Integer, Card> searchCardPagingSource(Long deckId, String search) {
+        String match = toMatchQuery(search, null);
+        if (match == null) {
+            return searchCardByTextPagingSource(deckId, search);
+        }
+        return matchCardPagingSource(deckId, match, toMatchQuery(search, "question"));
+    }
 
-    @Query("SELECT * FROM card WHERE deck_id=:deckId AND (question LIKE '%'||:search||'%' " +
-            "OR answer LIKE '%'||:search||'%') ORDER BY ordinal")
-    public abstract List<Card> searchCardByDeckId(long deckId, String search);
+    @Query("SELECT * FROM card WHERE " +
+            "(id IN (SELECT docid FROM card_fts WHERE card_fts MATCH :match) " +
+            "AND (:deckId IS NULL OR deck_id = :deckId)) " +
+            "OR deck_id IN (SELECT docid FROM deck_fts WHERE deck_fts MATCH :match) " +
+            "ORDER BY CASE " +
+            "WHEN id IN (SELECT docid FROM card_fts WHERE card_fts MATCH :questionMatch) THEN 0 " +
+            "WHEN id IN (SELECT docid FROM card_fts WHERE card_fts MATCH :match) THEN 1 " +
+            "ELSE 2 END, ordinal, id")
+    abstract PagingSource<Integer, Card> matchCardPagingSource(Long deckId, String match, String questionMatch);
+
+    // fallback for input without any word, e.g. punctuation only
+    @Query("SELECT * FROM card WHERE " +
+            "((:deckId IS NULL OR deck_id = :deckId) " +
+            "AND (question LIKE '%'||:search||'%' OR answer LIKE '%'||:search||'%')) " +
+            "OR deck_id IN (SELECT id FROM deck WHERE name LIKE '%'||:search||'%') " +
+            "ORDER BY ordinal, id")
+    abstract PagingSource<Integer, Card> searchCardByTextPagingSource(Long deckId, String search);
+
+    /**
+     * Convert user input into full text MATCH expression where every word is a prefix term
+     *
+     * @param column limit the terms to this column, null for all columns
+     * @return null if input has no word to match
+     */
+    static String toMatchQuery(String search, String column) {
+        if (search == null) {
+            return null;
+        }
+        StringBuilder match = new StringBuilder();
+        // lower case so words like OR/NOT/NEAR are not taken as operator
+        for (String word : search.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            if (column != null) {
+                match.append(column).append(':');
+            }
+            match.append(word).append('*');
+        }
+        return match.length() == 0 ? null : match.toString();
+    }
 
     @Query("SELECT * FROM deck WHERE id=:deckId")
     public abstract Deck getDeckById(long deckId);
@@ -139,6 +279,19 @@ public abstract class DeckDao {
     @Query("SELECT * FROM deck WHERE id IN (:deckIds)")
     abstract List<Deck> getDeckByIds(List<Long> deckIds);
 
+    /**
+     * Decks with their current card count, deleted decks are not returned
+     */
+    public List<DeckWithCount> findDeckWithCountByIds(List<Long> deckIds) {
+        return queryInBatches(deckIds, this::getDeckWithCountByIds);
+    }
+
+    @Query("SELECT deck.*, COUNT(card.id) AS card_count FROM " +
+            "(SELECT * FROM deck WHERE id IN (:deckIds)) AS deck " +
+            "LEFT JOIN card ON card.deck_id = deck.id " +
+            "GROUP BY deck.id")
+    abstract List<DeckWithCount> getDeckWithCountByIds(List<Long> deckIds);
+
     @Query("SELECT * FROM deck")
     public abstract List<Deck> getAllDecks();
 
@@ -167,7 +320,27 @@ public abstract class DeckDao {
 
     @Transaction
     public void importDecks(List<DeckModel> deckModels) {
+        importDecks(deckModels, null);
+    }
+
+    /**
+     * Import decks and its cards, cards are inserted in batches of {@link #INSERT_BATCH_SIZE}
+     * and the generated ids are set back to each deck and card.
+     *
+     * @param deckModels       decks to be imported
+     * @param progressListener optional listener to be notified after each batch inserted
+     */
+    @Transaction
+    public void importDecks(List<DeckModel> deckModels, ImportProgressListener progressListener) {
         if (deckModels == null || deckModels.isEmpty()) return;
+        int totalCards = 0;
+        for (DeckModel deckModel : deckModels) {
+            List<Card> cardList = deckModel.getCardList();
+            if (cardList != null) {
+                totalCards += cardList.size();
+            }
+        }
+        int importedCards = 0;
         for (DeckModel deckModel : deckModels) {
             Deck deck = deckModel.getDeck();
             // imported deck id and our deck id must not same
@@ -179,12 +352,29 @@ public abstract class DeckDao {
                     // replace imported deck id with our deck id
                     card.deckId = deck.id;
                     card.id = null;
-                    card.id = insert(card);
                 }
+                importedCards = insertCardsInBatches(cardList, importedCards, totalCards, progressListener);
             }
         }
     }
 
+    private int insertCardsInBatches(List<Card> cardList, int insertedCount, int totalCount,
+                                     ImportProgressListener progressListener) {
+        int size = cardList.size();
+        for (int from = 0; from < size; from += INSERT_BATCH_SIZE) {
+            List<Card> batch = cardList.subList(from, Math.min(size, from + INSERT_BATCH_SIZE));
+            List<Long> ids = insert(batch);
+            for (int i = 0; i < ids.size(); i++) {
+                batch.get(i).id = ids.get(i);
+            }
+            insertedCount += batch.size();
+            if (progressListener != null) {
+                progressListener.onProgress(insertedCount, totalCount);
+            }
+        }
+        return insertedCount;
+    }
+
     public List<Card> getCardsByDecks(List<Deck> decks) {
         if (decks == null || decks.isEmpty()) return new ArrayList<>();
         List<Long> deckIds = new ArrayList<>();
@@ -250,9 +440,19 @@ public abstract class DeckDao {
     @Insert
     protected abstract long insert(Card card);
 
+    @Insert
+    protected abstract List<Long> insert(List<Card> cards);
+
     @Update
     protected abstract void update(Card card);
 
     @Delete
     protected abstract void delete(Card card);
+
+    /**
+     * Listener to observe progress of {@link #importDecks(List, ImportProgressListener)}
+     */
+    public interface ImportProgressListener {
+        void onProgress(int importedCards, int totalCards);
+    }
 }
@@ -17,19 +17,31 @@
 
 package m.co.rh.id.a_flash_deck.base.entity;
 
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.JsonWriter;
+
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Objects;
 
 
-@Entity(tableName = "card")
+@Entity(tableName = "card",
+        indices = {
+                @Index({"deck_id", "ordinal"}),
+                @Index("question_image"),
+                @Index("answer_image"),
+                @Index("question_voice")
+        })
 public class Card implements Serializable, Cloneable {
     @PrimaryKey(autoGenerate = true)
     public Long id;
@@ -208,4 +220,97 @@ public class Card implements Serializable, Cloneable {
             // leave blank
         }
     }
+
+    /**
+     * Stream this card as JSON object, same format as {@link #toJson()}
+     */
+    public void toJson(JsonWriter jsonWriter) throws IOException {
+        jsonWriter.beginObject();
+        if (id != null) {
+            jsonWriter.name("id").value(id);
+        }
+        if (deckId != null) {
+            jsonWriter.name("deckId").value(deckId);
+        }
+        jsonWriter.name("ordinal").value(ordinal);
+        if (question != null) {
+            jsonWriter.name("question").value(question);
+        }
+        jsonWriter.name("questionImage").value(questionImage == null ? "" : questionImage);
+        jsonWriter.name("questionVoice").value(questionVoice == null ? "" : questionVoice);
+        if (answer != null) {
+            jsonWriter.name("answer").value(answer);
+        }
+        jsonWriter.name("answerImage").value(answerImage == null ? "" : answerImage);
+        jsonWriter.name("answerVoice").value(answerVoice == null ? "" : answerVoice);
+        jsonWriter.name("isReversibleQA").value(isReversibleQA);
+        jsonWriter.name("isReversed").value(isReversed);
+        jsonWriter.endObject();
+    }
+
+    /**
+     * Read this card from the next JSON object in the stream, same format as {@link #fromJson(JSONObject)}
+     */
+    public void fromJson(JsonReader jsonReader) throws IOException {
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            if (jsonReader.peek() == JsonToken.NULL) {
+                jsonReader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "id":
+                    id = jsonReader.nextLong();
+                    break;
+                case "deckId":
+                    deckId = jsonReader.nextLong();
+                    break;
+                case "ordinal":
+                    ordinal = jsonReader.nextInt();
+                    break;
+                case "question":
+                    question = jsonReader.nextString();
+                    break;
+                case "questionImage":
+                    questionImage = emptyToNull(jsonReader.nextString());
+                    break;
+                case "questionVoice":
+                    questionVoice = emptyToNull(jsonReader.nextString());
+                    break;
+                case "answer":
+                    answer = jsonReader.nextString();
+                    break;
+                case "answerImage":
+                    answerImage = emptyToNull(jsonReader.nextString());
+                    break;
+                case "answerVoice":
+                    answerVoice = emptyToNull(jsonReader.nextString());
+                    break;
+                case "isReversibleQA":
+                    isReversibleQA = nextBoolean(jsonReader);
+                    break;
+                case "isReversed":
+                    isReversed = nextBoolean(jsonReader);
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        if (question == null || answer == null) {
+            throw new IOException("Card question or answer is missing");
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static boolean nextBoolean(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.STRING) {
+            return Boolean.parseBoolean(jsonReader.nextString());
+        }
+        return jsonReader.nextBoolean();
+    }
 }
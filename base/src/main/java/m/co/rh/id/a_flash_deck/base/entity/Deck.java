@@ -17,6 +17,10 @@
 
 package m.co.rh.id.a_flash_deck.base.entity;
 
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.JsonWriter;
+
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.PrimaryKey;
@@ -25,6 +29,7 @@ import androidx.room.TypeConverters;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Date;
 import java.util.Objects;
@@ -115,4 +120,62 @@ public class Deck implements Serializable, Cloneable {
             updatedDateTime = new Date(Long.parseLong(updatedDateTimeMilis));
         }
     }
+
+    /**
+     * Stream this deck as JSON object, same format as {@link #toJson()}
+     */
+    public void toJson(JsonWriter jsonWriter) throws IOException {
+        jsonWriter.beginObject();
+        if (id != null) {
+            jsonWriter.name("id").value(id);
+        }
+        if (name != null) {
+            jsonWriter.name("name").value(name);
+        }
+        jsonWriter.name("createdDateTime").value(createdDateTime == null ?
+                "" : Long.toString(createdDateTime.getTime()));
+        jsonWriter.name("updatedDateTime").value(updatedDateTime == null ?
+                "" : Long.toString(updatedDateTime.getTime()));
+        jsonWriter.endObject();
+    }
+
+    /**
+     * Read this deck from the next JSON object in the stream, same format as {@link #fromJson(JSONObject)}
+     */
+    public void fromJson(JsonReader jsonReader) throws IOException {
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String key = jsonReader.nextName();
+            if (jsonReader.peek() == JsonToken.NULL) {
+                jsonReader.skipValue();
+                continue;
+            }
+            switch (key) {
+                case "id":
+                    id = jsonReader.nextLong();
+                    break;
+                case "name":
+                    name = jsonReader.nextString();
+                    break;
+                case "createdDateTime":
+                    String createdDateTimeMilis = jsonReader.nextString();
+                    if (!createdDateTimeMilis.isEmpty()) {
+                        createdDateTime = new Date(Long.parseLong(createdDateTimeMilis));
+                    }
+                    break;
+                case "updatedDateTime":
+                    String updatedDateTimeMilis = jsonReader.nextString();
+                    if (!updatedDateTimeMilis.isEmpty()) {
+                        updatedDateTime = new Date(Long.parseLong(updatedDateTimeMilis));
+                    }
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        if (name == null) {
+            throw new IOException("Deck name is missing");
+        }
+    }
 }
@@ -42,11 +42,24 @@ public class NotificationTimer implements Serializable, Cloneable {
     public String selectedDeckIds;
 
     /**
-     * JsonArray string that stores list of card that has been shown by notification
+     * JsonArray string that stores list of card that has been shown by notification.
+     * No longer used, replaced by {@link #shuffleSeed} and {@link #shufflePosition}
      */
     @ColumnInfo(name = "displayed_card_ids")
     public String displayedCardIds;
 
+    /**
+     * Seed of the current shuffle of the selected decks card ids
+     */
+    @ColumnInfo(name = "shuffle_seed", defaultValue = "0")
+    public long shuffleSeed;
+
+    /**
+     * Position of the next card to be shown in the current shuffle, 0 starts a new shuffle
+     */
+    @ColumnInfo(name = "shuffle_position", defaultValue = "0")
+    public int shufflePosition;
+
     /**
      * Current card ID that is displayed
      */
@@ -58,6 +71,8 @@ public class NotificationTimer implements Serializable, Cloneable {
         if (o == null || getClass() != o.getClass()) return false;
         NotificationTimer that = (NotificationTimer) o;
         return periodInMinutes == that.periodInMinutes &&
+                shuffleSeed == that.shuffleSeed &&
+                shufflePosition == that.shufflePosition &&
                 Objects.equals(id, that.id) &&
                 Objects.equals(name, that.name) &&
                 Objects.equals(selectedDeckIds, that.selectedDeckIds) &&
@@ -67,7 +82,7 @@ public class NotificationTimer implements Serializable, Cloneable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, name, periodInMinutes, selectedDeckIds, displayedCardIds, currentCardId);
+        return Objects.hash(id, name, periodInMinutes, selectedDeckIds, displayedCardIds, shuffleSeed, shufflePosition, currentCardId);
     }
 
     @Override
@@ -17,10 +17,15 @@
 
 package m.co.rh.id.a_flash_deck.base.model;
 
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.JsonWriter;
+
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -94,4 +99,58 @@ public class DeckModel implements Serializable {
             }
         }
     }
+
+    /**
+     * Stream this model as JSON object, same format as {@link #toJson()}
+     */
+    public void toJson(JsonWriter jsonWriter) throws IOException {
+        jsonWriter.beginObject();
+        jsonWriter.name("serialVersionUID").value(serialVersionUID);
+        jsonWriter.name("deck");
+        mDeck.toJson(jsonWriter);
+        if (!mCardList.isEmpty()) {
+            jsonWriter.name("cardList");
+            jsonWriter.beginArray();
+            for (Card card : mCardList) {
+                card.toJson(jsonWriter);
+            }
+            jsonWriter.endArray();
+        }
+        jsonWriter.endObject();
+    }
+
+    /**
+     * Read this model from the next JSON object in the stream, same format as {@link #fromJson(JSONObject)}
+     */
+    public void fromJson(JsonReader jsonReader) throws IOException {
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            if (jsonReader.peek() == JsonToken.NULL) {
+                jsonReader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "deck":
+                    mDeck = new Deck();
+                    mDeck.fromJson(jsonReader);
+                    break;
+                case "cardList":
+                    jsonReader.beginArray();
+                    while (jsonReader.hasNext()) {
+                        Card card = new Card();
+                        card.fromJson(jsonReader);
+                        mCardList.add(card);
+                    }
+                    jsonReader.endArray();
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        if (mDeck == null) {
+            throw new IOException("Deck is missing");
+        }
+    }
 }
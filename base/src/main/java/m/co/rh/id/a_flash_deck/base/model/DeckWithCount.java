@@ -0,0 +1,36 @@
+/*
+ *     Copyright (C) 2021-2026 Ruby Hartono
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package m.co.rh.id.a_flash_deck.base.model;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Embedded;
+
+import java.io.Serializable;
+
+import m.co.rh.id.a_flash_deck.base.entity.Deck;
+
+/**
+ * Deck along with number of cards in it, queried together for deck list
+ */
+public class DeckWithCount implements Serializable {
+    @Embedded
+    public Deck deck;
+
+    @ColumnInfo(name = "card_count")
+    public int cardCount;
+}
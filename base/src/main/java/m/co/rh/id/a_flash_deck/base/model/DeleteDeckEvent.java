@@ -0,0 +1,44 @@
+/*
+ *     Copyright (C) 2021-2026 Ruby Hartono
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package m.co.rh.id.a_flash_deck.base.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+import m.co.rh.id.a_flash_deck.base.entity.Deck;
+
+/**
+ * Deleted deck along with the ids of its cards, captured before the cards were deleted
+ */
+public class DeleteDeckEvent implements Serializable {
+    private Deck mDeletedDeck;
+    private List<Long> mDeletedCardIds;
+
+    public DeleteDeckEvent(Deck deletedDeck, List<Long> deletedCardIds) {
+        mDeletedDeck = deletedDeck;
+        mDeletedCardIds = deletedCardIds;
+    }
+
+    public Deck getDeletedDeck() {
+        return mDeletedDeck;
+    }
+
+    public List<Long> getDeletedCardIds() {
+        return mDeletedCardIds;
+    }
+}
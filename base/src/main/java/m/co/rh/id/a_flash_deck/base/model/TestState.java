@@ -19,41 +19,82 @@ package m.co.rh.id.a_flash_deck.base.model;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import m.co.rh.id.a_flash_deck.base.entity.Card;
 
 /**
- * Model of the test state
+ * Model of the test state.
+ * Only card ids are kept for the whole test, card content is hydrated for cards within
+ * {@link #WINDOW_RADIUS} of current index so memory does not grow with test size.
  */
 public class TestState implements Serializable {
-    // list of choosen cards
-    private ArrayList<Card> mChoosenCards;
+    public static final int WINDOW_RADIUS = 5;
+
+    // choosen card ids in test order
+    private long[] mCardIds;
+    // reversed question and answer, by position in mCardIds
+    private BitSet mReversedFlags;
     // current test index position
     private int mCurrentCardIndex;
     // test id from Test entity
     private long mTestId;
+    // hydrated cards around current index keyed by card id
+    private transient volatile Map<Long, Card> mWindowCards;
 
     public TestState(List<Card> choosenCards, long testId) {
-        mChoosenCards = new ArrayList<>();
-        mChoosenCards.addAll(choosenCards);
+        int size = choosenCards.size();
+        mCardIds = new long[size];
+        mReversedFlags = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            Card card = choosenCards.get(i);
+            mCardIds[i] = card.id;
+            mReversedFlags.set(i, card.isReversed);
+        }
+        mTestId = testId;
+        Map<Long, Card> windowCards = new HashMap<>();
+        for (int i = 0; i < size && i <= WINDOW_RADIUS; i++) {
+            windowCards.put(mCardIds[i], choosenCards.get(i));
+        }
+        mWindowCards = windowCards;
+    }
+
+    public TestState(long[] cardIds, BitSet reversedFlags, long testId, int currentCardIndex) {
+        mCardIds = cardIds;
+        mReversedFlags = reversedFlags;
         mTestId = testId;
+        mCurrentCardIndex = currentCardIndex;
+        mWindowCards = Collections.emptyMap();
     }
 
     public Card previousCard() {
         if (mCurrentCardIndex == 0) return null;
         mCurrentCardIndex--;
-        return mChoosenCards.get(mCurrentCardIndex);
+        return currentCard();
     }
 
+    /**
+     * @return current card, null if not hydrated yet
+     */
     public Card currentCard() {
-        return mChoosenCards.get(mCurrentCardIndex);
+        int index = mCurrentCardIndex;
+        Map<Long, Card> windowCards = mWindowCards;
+        Card card = windowCards == null ? null : windowCards.get(mCardIds[index]);
+        if (card != null) {
+            card.isReversed = mReversedFlags.get(index);
+        }
+        return card;
     }
 
     public Card nextCard() {
-        if (mCurrentCardIndex == mChoosenCards.size()) return null;
+        if (mCurrentCardIndex >= mCardIds.length - 1) return null;
         mCurrentCardIndex++;
-        return mChoosenCards.get(mCurrentCardIndex);
+        return currentCard();
     }
 
     public long getTestId() {
@@ -65,6 +106,63 @@ public class TestState implements Serializable {
     }
 
     public int getTotalCards() {
-        return mChoosenCards.size();
+        return mCardIds.length;
+    }
+
+    public long getCardId(int index) {
+        return mCardIds[index];
+    }
+
+    public boolean isReversed(int index) {
+        return mReversedFlags.get(index);
+    }
+
+    /**
+     * @return ids of cards that should be hydrated for current index
+     */
+    public List<Long> getWindowCardIds() {
+        int from = Math.max(0, mCurrentCardIndex - WINDOW_RADIUS);
+        int to = Math.min(mCardIds.length - 1, mCurrentCardIndex + WINDOW_RADIUS);
+        List<Long> cardIds = new ArrayList<>(Math.max(0, to - from + 1));
+        for (int i = from; i <= to; i++) {
+            cardIds.add(mCardIds[i]);
+        }
+        return cardIds;
+    }
+
+    public Map<Long, Card> getWindowCards() {
+        Map<Long, Card> windowCards = mWindowCards;
+        return windowCards == null ? Collections.emptyMap() : windowCards;
+    }
+
+    public void setWindowCards(Map<Long, Card> windowCards) {
+        mWindowCards = windowCards;
+    }
+
+    /**
+     * Remove cards that no longer exist, current index stays on the same card if it still exists
+     */
+    public void removeCards(Set<Long> cardIds) {
+        int size = mCardIds.length;
+        long[] keptIds = new long[size];
+        BitSet keptFlags = new BitSet(size);
+        int keptCount = 0;
+        int currentIndex = 0;
+        for (int i = 0; i < size; i++) {
+            if (cardIds.contains(mCardIds[i])) {
+                continue;
+            }
+            if (i < mCurrentCardIndex) {
+                currentIndex++;
+            }
+            keptIds[keptCount] = mCardIds[i];
+            keptFlags.set(keptCount, mReversedFlags.get(i));
+            keptCount++;
+        }
+        long[] newIds = new long[keptCount];
+        System.arraycopy(keptIds, 0, newIds, 0, keptCount);
+        mCardIds = newIds;
+        mReversedFlags = keptFlags;
+        mCurrentCardIndex = Math.max(0, Math.min(currentIndex, keptCount - 1));
     }
 }
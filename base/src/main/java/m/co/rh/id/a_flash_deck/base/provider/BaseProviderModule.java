@@ -34,7 +34,9 @@ import co.rh.id.lib.concurrent_utils.concurrent.executor.WeightedThreadPool;
 import m.co.rh.id.a_flash_deck.base.component.AppSharedPreferences;
 import m.co.rh.id.a_flash_deck.base.component.AudioPlayer;
 import m.co.rh.id.a_flash_deck.base.component.AudioRecorder;
+import m.co.rh.id.a_flash_deck.base.component.CardSampler;
 import m.co.rh.id.a_flash_deck.base.component.MarkdownRenderer;
+import m.co.rh.id.a_flash_deck.base.component.ThumbnailGenerator;
 import m.co.rh.id.a_flash_deck.base.provider.navigator.CommonNavConfig;
 import m.co.rh.id.a_flash_deck.base.provider.notifier.DeckChangeNotifier;
 import m.co.rh.id.a_flash_deck.base.provider.notifier.NotificationTimeChangeNotifier;
@@ -95,6 +97,8 @@ public class BaseProviderModule implements ProviderModule {
         providerRegistry.registerAsync(AppSharedPreferences.class, () -> new AppSharedPreferences(provider));
         providerRegistry.registerLazy(AudioRecorder.class, () -> new AudioRecorder(provider));
         providerRegistry.registerLazy(AudioPlayer.class, () -> new AudioPlayer(provider));
+        providerRegistry.registerLazy(ThumbnailGenerator.class, () -> new ThumbnailGenerator(provider));
+        providerRegistry.registerLazy(CardSampler.class, () -> new CardSampler(provider));
         providerRegistry.registerLazy(DeckChangeNotifier.class, DeckChangeNotifier::new);
         providerRegistry.registerLazy(TestChangeNotifier.class, TestChangeNotifier::new);
         providerRegistry.registerLazy(NotificationTimerChangeNotifier.class, NotificationTimerChangeNotifier::new);
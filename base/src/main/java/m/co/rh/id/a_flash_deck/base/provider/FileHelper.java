@@ -30,6 +30,7 @@ import androidx.exifinterface.media.ExifInterface;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -45,6 +46,8 @@ import m.co.rh.id.aprovider.ProviderValue;
  */
 public class FileHelper {
     private static final String TAG = FileHelper.class.getName();
+    private static final int THUMBNAIL_WIDTH = 320;
+    private static final int THUMBNAIL_HEIGHT = 180;
 
     private final Context mAppContext;
     private final ProviderValue<ILogger> mLogger;
@@ -150,6 +153,24 @@ public class FileHelper {
         }
     }
 
+    /**
+     * Create question image directly from a stream source without intermediate temp file.
+     *
+     * @param source   source of the image, opened more than once to read bounds and EXIF
+     * @param fileName file name for the image
+     */
+    public File createCardQuestionImage(InputStreamSource source, String fileName) throws IOException {
+        File outFile = new File(mCardQuestionImageParent, fileName);
+        try {
+            outFile.createNewFile();
+            copyImage(source, outFile, 1280, 720);
+            return outFile;
+        } catch (Exception e) {
+            outFile.delete();
+            throw e;
+        }
+    }
+
     public File createCardQuestionImage(Uri content) throws IOException {
         File outFile = newCardQuestionImage();
         try {
@@ -166,7 +187,7 @@ public class FileHelper {
         File outFile = new File(mCardQuestionImageThumbnailParent, fileName);
         try {
             outFile.createNewFile();
-            copyImage(content, outFile, 320, 180);
+            copyImage(content, outFile, THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT);
             return outFile;
         } catch (Exception e) {
             outFile.delete();
@@ -178,7 +199,7 @@ public class FileHelper {
         File outFile = new File(mCardAnswerImageThumbnailParent, fileName);
         try {
             outFile.createNewFile();
-            copyImage(content, outFile, 320, 180);
+            copyImage(content, outFile, THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT);
             return outFile;
         } catch (Exception e) {
             outFile.delete();
@@ -186,6 +207,27 @@ public class FileHelper {
         }
     }
 
+    /**
+     * Estimate peak bitmap memory needed to create thumbnail for this image file.
+     * Only image bounds are decoded, the estimate counts ARGB_8888 pixels after sampling
+     * and doubles it to cover the rotated copy created for EXIF orientation.
+     *
+     * @param imageFile image to create thumbnail from
+     * @return estimated bytes, or 0 if bounds could not be decoded
+     */
+    public long estimateThumbnailBitmapBytes(File imageFile) throws IOException {
+        BitmapFactory.Options bmOptions;
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(imageFile))) {
+            bmOptions = getBitmapOptionForCompression(inputStream, THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT);
+        }
+        if (bmOptions.outWidth <= 0 || bmOptions.outHeight <= 0) {
+            return 0;
+        }
+        long width = bmOptions.outWidth / bmOptions.inSampleSize;
+        long height = bmOptions.outHeight / bmOptions.inSampleSize;
+        return width * height * 4 * 2;
+    }
+
     public void deleteCardQuestionImage(String fileName) {
         if (fileName != null && !fileName.isEmpty()) {
             File file = new File(mCardQuestionImageParent, fileName);
@@ -216,6 +258,17 @@ public class FileHelper {
         }
     }
 
+    public File createCardQuestionVoice(InputStream inputStream, String fileName) throws IOException {
+        File outFile = new File(mCardQuestionVoiceParent, fileName);
+        try (BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(outFile))) {
+            copyStream(inputStream, bos);
+            return outFile;
+        } catch (Exception e) {
+            outFile.delete();
+            throw e;
+        }
+    }
+
     public File createCardQuestionVoice(Uri content) throws IOException {
         String fName = UUID.randomUUID().toString();
         File outFile = new File(mCardQuestionVoiceParent, fName);
@@ -241,6 +294,17 @@ public class FileHelper {
         }
     }
 
+    public File createCardAnswerVoice(InputStream inputStream, String fileName) throws IOException {
+        File outFile = new File(mCardAnswerVoiceParent, fileName);
+        try (BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(outFile))) {
+            copyStream(inputStream, bos);
+            return outFile;
+        } catch (Exception e) {
+            outFile.delete();
+            throw e;
+        }
+    }
+
     public File createCardAnswerVoice(Uri content) throws IOException {
         String fName = UUID.randomUUID().toString();
         File outFile = new File(mCardAnswerVoiceParent, fName);
@@ -304,6 +368,24 @@ public class FileHelper {
         }
     }
 
+    /**
+     * Create answer image directly from a stream source without intermediate temp file.
+     *
+     * @param source   source of the image, opened more than once to read bounds and EXIF
+     * @param fileName file name for the image
+     */
+    public File createCardAnswerImage(InputStreamSource source, String fileName) throws IOException {
+        File outFile = new File(mCardAnswerImageParent, fileName);
+        try {
+            outFile.createNewFile();
+            copyImage(source, outFile, 1280, 720);
+            return outFile;
+        } catch (Exception e) {
+            outFile.delete();
+            throw e;
+        }
+    }
+
     public File createCardAnswerImage(Uri content) throws IOException {
         File tmpFile = newCardAnswerImage();
         try {
@@ -336,11 +418,17 @@ public class FileHelper {
 
     private void copyImage(Uri content, File outFile, int width, int height) throws IOException {
         ContentResolver contentResolver = mAppContext.getContentResolver();
-        InputStream fis = contentResolver.openInputStream(content);
-        if (fis == null) {
-            throw new IOException("Unable to open input stream for " + content);
-        }
+        copyImage(() -> {
+            InputStream inputStream = contentResolver.openInputStream(content);
+            if (inputStream == null) {
+                throw new IOException("Unable to open input stream for " + content);
+            }
+            return inputStream;
+        }, outFile, width, height);
+    }
 
+    private void copyImage(InputStreamSource source, File outFile, int width, int height) throws IOException {
+        InputStream fis = source.open();
         BitmapFactory.Options bmOptions = getBitmapOptionForCompression(fis, width, height);
         try {
             fis.close();
@@ -350,7 +438,7 @@ public class FileHelper {
 
         OutputStream fileOutputStream = new BufferedOutputStream(
                 new FileOutputStream(outFile), 10240);
-        Bitmap bitmap = processExifAttr(mAppContext, content, bmOptions);
+        Bitmap bitmap = processExifAttr(source, bmOptions);
         bitmap.compress(Bitmap.CompressFormat.JPEG, 90, fileOutputStream);
         fileOutputStream.flush();
         fileOutputStream.close();
@@ -374,12 +462,8 @@ public class FileHelper {
         return bmOptions;
     }
 
-    private Bitmap processExifAttr(Context context, Uri imageUri, BitmapFactory.Options bmOptions) throws IOException {
-        ContentResolver contentResolver = context.getContentResolver();
-        InputStream inputStream = contentResolver.openInputStream(imageUri);
-        if (inputStream == null) {
-            throw new IOException("Unable to open stream for URI: " + imageUri);
-        }
+    private Bitmap processExifAttr(InputStreamSource source, BitmapFactory.Options bmOptions) throws IOException {
+        InputStream inputStream = source.open();
 
         if (!inputStream.markSupported()) {
             inputStream = new BufferedInputStream(inputStream);
@@ -399,17 +483,14 @@ public class FileHelper {
             } catch (IOException closeErr) {
                 mLogger.get().e(TAG, "Error closing initial stream", closeErr);
             }
-            inputStream = contentResolver.openInputStream(imageUri);
-            if (inputStream == null) {
-                throw new IOException("Unable to open stream for URI: " + imageUri);
-            }
+            inputStream = source.open();
         }
 
         Bitmap bitmap = BitmapFactory.decodeStream(inputStream, null, bmOptions);
         if (bitmap == null) {
             // Add logging or throw an exception if bitmap decoding fails
-            mLogger.get().e(TAG, "BitmapFactory.decodeStream returned null for " + imageUri);
-            throw new IOException("Failed to decode bitmap from stream for URI: " + imageUri);
+            mLogger.get().e(TAG, "BitmapFactory.decodeStream returned null");
+            throw new IOException("Failed to decode bitmap from stream");
         }
 
         try {
@@ -499,4 +580,11 @@ public class FileHelper {
         }
         directory.delete();
     }
+
+    /**
+     * Source that can open a fresh stream of the same content multiple times
+     */
+    public interface InputStreamSource {
+        InputStream open() throws IOException;
+    }
 }
@@ -17,31 +17,45 @@
 
 package m.co.rh.id.a_flash_deck.base.provider.notifier;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import io.reactivex.rxjava3.core.BackpressureStrategy;
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.subjects.PublishSubject;
 import io.reactivex.rxjava3.subjects.Subject;
 import m.co.rh.id.a_flash_deck.base.entity.Card;
 import m.co.rh.id.a_flash_deck.base.entity.Deck;
+import m.co.rh.id.a_flash_deck.base.model.DeleteDeckEvent;
 import m.co.rh.id.a_flash_deck.base.model.MoveCardEvent;
 
 /**
- * A hub to notify changes in deck records
+ * A hub to notify changes in deck records.
+ * Bulk operations should use the batch methods ({@link #decksAdded(List)}, {@link #cardsAdded(List)}),
+ * subscribers of the batch flows receive single changes as one element list too.
+ * There is no single item flow for added decks and cards, it would miss the batch events.
  */
 public class DeckChangeNotifier {
     private Subject<Deck> mAddedDeckSubject;
+    private Subject<List<Deck>> mAddedDecksSubject;
     private Subject<Deck> mUpdatedDeckSubject;
     private Subject<Deck> mDeletedDeckSubject;
+    private Subject<DeleteDeckEvent> mDeletedDeckEventSubject;
     private Subject<Card> mAddedCardSubject;
+    private Subject<List<Card>> mAddedCardsSubject;
     private Subject<Card> mUpdatedCardSubject;
     private Subject<Card> mDeletedCardSubject;
     private Subject<MoveCardEvent> mMovedCardSubject;
 
     public DeckChangeNotifier() {
         mAddedDeckSubject = PublishSubject.<Deck>create().toSerialized();
+        mAddedDecksSubject = PublishSubject.<List<Deck>>create().toSerialized();
         mUpdatedDeckSubject = PublishSubject.<Deck>create().toSerialized();
         mDeletedDeckSubject = PublishSubject.<Deck>create().toSerialized();
+        mDeletedDeckEventSubject = PublishSubject.<DeleteDeckEvent>create().toSerialized();
         mAddedCardSubject = PublishSubject.<Card>create().toSerialized();
+        mAddedCardsSubject = PublishSubject.<List<Card>>create().toSerialized();
         mUpdatedCardSubject = PublishSubject.<Card>create().toSerialized();
         mDeletedCardSubject = PublishSubject.<Card>create().toSerialized();
         mMovedCardSubject = PublishSubject.<MoveCardEvent>create().toSerialized();
@@ -53,15 +67,27 @@ public class DeckChangeNotifier {
         }
     }
 
+    public void decksAdded(List<Deck> decks) {
+        if (decks != null && !decks.isEmpty()) {
+            mAddedDecksSubject.onNext(Collections.unmodifiableList(new ArrayList<>(decks)));
+        }
+    }
+
     public void deckUpdated(Deck deck) {
         if (deck != null) {
             mUpdatedDeckSubject.onNext(deck);
         }
     }
 
-    public void deckDeleted(Deck deck) {
+    /**
+     * @param deletedCardIds ids of the cards deleted along with this deck
+     */
+    public void deckDeleted(Deck deck, List<Long> deletedCardIds) {
         if (deck != null) {
             mDeletedDeckSubject.onNext(deck);
+            mDeletedDeckEventSubject.onNext(new DeleteDeckEvent(deck,
+                    deletedCardIds == null ? Collections.emptyList() :
+                            Collections.unmodifiableList(new ArrayList<>(deletedCardIds))));
         }
     }
 
@@ -71,6 +97,12 @@ public class DeckChangeNotifier {
         }
     }
 
+    public void cardsAdded(List<Card> cards) {
+        if (cards != null && !cards.isEmpty()) {
+            mAddedCardsSubject.onNext(Collections.unmodifiableList(new ArrayList<>(cards)));
+        }
+    }
+
     public void cardUpdated(Card card) {
         if (card != null) {
             mUpdatedCardSubject.onNext(card);
@@ -89,8 +121,13 @@ public class DeckChangeNotifier {
         }
     }
 
-    public Flowable<Deck> getAddedDeckFlow() {
-        return Flowable.fromObservable(mAddedDeckSubject, BackpressureStrategy.BUFFER);
+    /**
+     * @return added decks, both from {@link #deckAdded(Deck)} and {@link #decksAdded(List)}
+     */
+    public Flowable<List<Deck>> getAddedDecksFlow() {
+        return Flowable.merge(
+                Flowable.fromObservable(mAddedDeckSubject.map(Collections::singletonList), BackpressureStrategy.BUFFER),
+                Flowable.fromObservable(mAddedDecksSubject, BackpressureStrategy.BUFFER));
     }
 
     public Flowable<Deck> getUpdatedDeckFlow() {
@@ -101,8 +138,17 @@ public class DeckChangeNotifier {
         return Flowable.fromObservable(mDeletedDeckSubject, BackpressureStrategy.BUFFER);
     }
 
-    public Flowable<Card> getAddedCardFlow() {
-        return Flowable.fromObservable(mAddedCardSubject, BackpressureStrategy.BUFFER);
+    public Flowable<DeleteDeckEvent> getDeletedDeckEventFlow() {
+        return Flowable.fromObservable(mDeletedDeckEventSubject, BackpressureStrategy.BUFFER);
+    }
+
+    /**
+     * @return added cards, both from {@link #cardAdded(Card)} and {@link #cardsAdded(List)}
+     */
+    public Flowable<List<Card>> getAddedCardsFlow() {
+        return Flowable.merge(
+                Flowable.fromObservable(mAddedCardSubject.map(Collections::singletonList), BackpressureStrategy.BUFFER),
+                Flowable.fromObservable(mAddedCardsSubject, BackpressureStrategy.BUFFER));
     }
 
     public Flowable<Card> getUpdatedCardFlow() {
@@ -29,14 +29,17 @@ import m.co.rh.id.a_flash_deck.base.dao.NotificationTimerDao;
 import m.co.rh.id.a_flash_deck.base.dao.TestDao;
 import m.co.rh.id.a_flash_deck.base.entity.AndroidNotification;
 import m.co.rh.id.a_flash_deck.base.entity.Card;
+import m.co.rh.id.a_flash_deck.base.entity.CardFts;
 import m.co.rh.id.a_flash_deck.base.entity.Deck;
+import m.co.rh.id.a_flash_deck.base.entity.DeckFts;
 import m.co.rh.id.a_flash_deck.base.entity.NotificationTimer;
 import m.co.rh.id.a_flash_deck.base.entity.Test;
 
 
 @Database(entities = {Deck.class, Card.class, Test.class,
-        AndroidNotification.class, NotificationTimer.class},
-        version = 13,
+        AndroidNotification.class, NotificationTimer.class,
+        CardFts.class, DeckFts.class},
+        version = 16,
         autoMigrations = {
                 @AutoMigration(from = 12, to = 13,
                         spec = AppDatabase.RemoveIsReversedSpec.class)
@@ -10,7 +10,8 @@ public class DbMigration {
         return new Migration[]{MIGRATION_1_2, MIGRATION_2_3,
                 MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6,
                 MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9,
-                MIGRATION_9_10, MIGRATION_10_11, MIGRATION_11_12};
+                MIGRATION_9_10, MIGRATION_10_11, MIGRATION_11_12,
+                MIGRATION_13_14, MIGRATION_14_15, MIGRATION_15_16};
     }
 
     public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
@@ -120,4 +121,61 @@ public class DbMigration {
             }
         }
     };
+
+    public static final Migration MIGRATION_13_14 = new Migration(13, 14) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // card lookup by deck and by media file name
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_card_deck_id_ordinal` ON `card` (`deck_id`, `ordinal`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_card_question_image` ON `card` (`question_image`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_card_answer_image` ON `card` (`answer_image`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_card_question_voice` ON `card` (`question_voice`)");
+        }
+    };
+
+    public static final Migration MIGRATION_14_15 = new Migration(14, 15) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // full text search for card and deck, same statements as generated by room for @Fts4 content entity
+            createFtsTable(database, "card_fts", "card", "question", "answer");
+            createFtsTable(database, "deck_fts", "deck", "name");
+        }
+    };
+
+    public static final Migration MIGRATION_15_16 = new Migration(15, 16) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // notification timer shuffle cursor replaces the list of displayed card ids
+            database.execSQL("ALTER TABLE notification_timer ADD COLUMN `shuffle_seed` INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE notification_timer ADD COLUMN `shuffle_position` INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("UPDATE notification_timer SET `displayed_card_ids` = NULL");
+        }
+    };
+
+    private static void createFtsTable(SupportSQLiteDatabase database, String ftsTable, String contentTable,
+                                       String... columns) {
+        StringBuilder columnDefs = new StringBuilder();
+        StringBuilder columnNames = new StringBuilder();
+        StringBuilder newValues = new StringBuilder();
+        for (String column : columns) {
+            columnDefs.append('`').append(column).append("` TEXT, ");
+            columnNames.append(", `").append(column).append('`');
+            newValues.append(", NEW.`").append(column).append('`');
+        }
+        database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `" + ftsTable + "` USING FTS4("
+                + columnDefs + "tokenize=unicode61, content=`" + contentTable + "`, prefix=`2,3`)");
+        String triggerPrefix = "room_fts_content_sync_" + ftsTable + "_";
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS " + triggerPrefix + "BEFORE_UPDATE BEFORE UPDATE ON `"
+                + contentTable + "` BEGIN DELETE FROM `" + ftsTable + "` WHERE `docid`=OLD.`rowid`; END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS " + triggerPrefix + "BEFORE_DELETE BEFORE DELETE ON `"
+                + contentTable + "` BEGIN DELETE FROM `" + ftsTable + "` WHERE `docid`=OLD.`rowid`; END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS " + triggerPrefix + "AFTER_UPDATE AFTER UPDATE ON `"
+                + contentTable + "` BEGIN INSERT INTO `" + ftsTable + "`(`docid`" + columnNames
+                + ") VALUES (NEW.`rowid`" + newValues + "); END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS " + triggerPrefix + "AFTER_INSERT AFTER INSERT ON `"
+                + contentTable + "` BEGIN INSERT INTO `" + ftsTable + "`(`docid`" + columnNames
+                + ") VALUES (NEW.`rowid`" + newValues + "); END");
+        // index existing rows
+        database.execSQL("INSERT INTO `" + ftsTable + "`(`" + ftsTable + "`) VALUES('rebuild')");
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ *     Copyright (C) 2021-2026 Ruby Hartono
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package m.co.rh.id.a_flash_deck.bot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import m.co.rh.id.a_flash_deck.bot.room.BotDatabase;
+import m.co.rh.id.a_flash_deck.bot.room.BotDbMigration;
+
+@RunWith(AndroidJUnit4.class)
+public class BotDbMigrationTest {
+    private static final String TEST_DB = BotDbMigrationTest.class.getName()
+            + "-migration-test";
+
+    @Rule
+    public MigrationTestHelper helper;
+
+    public BotDbMigrationTest() {
+        helper = new MigrationTestHelper(InstrumentationRegistry.getInstrumentation(),
+                BotDatabase.class.getCanonicalName(),
+                new FrameworkSQLiteOpenHelperFactory());
+    }
+
+    @Test
+    public void migrateAll() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 1);
+        db.close();
+
+        BotDatabase botDb = Room.databaseBuilder(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                BotDatabase.class,
+                TEST_DB)
+                .addMigrations(BotDbMigration.getAllMigrations()).build();
+        botDb.getOpenHelper().getWritableDatabase();
+        botDb.close();
+    }
+
+    @Test
+    public void migrate1To3_backfillsDailyRollupByLocalDate() throws IOException {
+        LocalDate today = LocalDate.now();
+        LocalDate yesterday = today.minusDays(1);
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 1);
+        insertCardLog(db, 1L, 1, today.atTime(0, 30));
+        insertCardLog(db, 1L, 1, today.atTime(23, 30));
+        insertCardLog(db, 1L, 1, yesterday.atTime(23, 30));
+        insertCardLog(db, 1L, 2, today.atTime(12, 0));
+        insertCardLog(db, 2L, 3, yesterday.atTime(12, 0));
+        // incomplete rows are not counted
+        insertCardLog(db, null, 1, today.atTime(12, 0));
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 3, true, BotDbMigration.getAllMigrations());
+
+        try (Cursor cursor = db.query("SELECT card_id, epoch_day, _action, action_count FROM card_log_daily " +
+                "ORDER BY card_id, epoch_day, _action")) {
+            assertRollup(cursor, 1, yesterday, 1, 1);
+            assertRollup(cursor, 1, today, 1, 2);
+            assertRollup(cursor, 1, today, 2, 1);
+            assertRollup(cursor, 2, yesterday, 3, 1);
+            assertFalse(cursor.moveToNext());
+        }
+        // raw log is kept as is
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM card_log")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(6, cursor.getInt(0));
+        }
+        db.close();
+    }
+
+    private static void insertCardLog(SupportSQLiteDatabase db, Long cardId, int action,
+                                      LocalDateTime dateTime) {
+        long createdDateTime = dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        db.execSQL("INSERT INTO card_log (card_id, _action, created_date_time) VALUES (?, ?, ?)",
+                new Object[]{cardId, action, createdDateTime});
+    }
+
+    private static void assertRollup(Cursor cursor, long cardId, LocalDate date, int action, int actionCount) {
+        assertTrue(cursor.moveToNext());
+        assertEquals(cardId, cursor.getLong(0));
+        assertEquals(date.toEpochDay(), cursor.getLong(1));
+        assertEquals(action, cursor.getInt(2));
+        assertEquals(actionCount, cursor.getInt(3));
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ *     Copyright (C) 2021-2026 Ruby Hartono
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package m.co.rh.id.a_flash_deck.bot.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import m.co.rh.id.a_flash_deck.bot.entity.CardLog;
+import m.co.rh.id.a_flash_deck.bot.model.CardLogActionCount;
+import m.co.rh.id.a_flash_deck.bot.room.BotDatabase;
+
+@RunWith(AndroidJUnit4.class)
+public class CardLogDaoTest {
+    private static final int OPEN_NOTIFICATION = 1;
+    private static final int DELETE_NOTIFICATION = 2;
+    private static final int OPEN_TEST_ANSWER = 3;
+
+    private BotDatabase mBotDatabase;
+    private CardLogDao mCardLogDao;
+    private LocalDate mToday;
+
+    @Before
+    public void beforeTest() {
+        Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        mBotDatabase = Room.inMemoryDatabaseBuilder(appContext, BotDatabase.class).build();
+        mCardLogDao = mBotDatabase.cardLogDao();
+        mToday = LocalDate.now();
+    }
+
+    @After
+    public void afterTest() {
+        mBotDatabase.close();
+    }
+
+    @Test
+    public void insertAndCount_rollsUpPerCardDayAndAction() {
+        List<CardLog> cardLogs = new ArrayList<>();
+        cardLogs.add(cardLog(1, OPEN_NOTIFICATION, mToday));
+        cardLogs.add(cardLog(1, OPEN_NOTIFICATION, mToday));
+        cardLogs.add(cardLog(1, DELETE_NOTIFICATION, mToday));
+        cardLogs.add(cardLog(1, OPEN_NOTIFICATION, mToday.minusDays(1)));
+        cardLogs.add(cardLog(2, OPEN_TEST_ANSWER, mToday));
+        mCardLogDao.insertAndCount(cardLogs);
+        // later batch adds to the same rollup row
+        List<CardLog> nextCardLogs = new ArrayList<>();
+        nextCardLogs.add(cardLog(1, OPEN_NOTIFICATION, mToday));
+        mCardLogDao.insertAndCount(nextCardLogs);
+
+        assertEquals(6, count("SELECT COUNT(*) FROM card_log"));
+        assertEquals(4, count("SELECT COUNT(*) FROM card_log_daily"));
+        assertEquals(3, actionCount(1, mToday, OPEN_NOTIFICATION));
+        assertEquals(1, actionCount(1, mToday, DELETE_NOTIFICATION));
+        assertEquals(1, actionCount(1, mToday.minusDays(1), OPEN_NOTIFICATION));
+        assertEquals(1, actionCount(2, mToday, OPEN_TEST_ANSWER));
+    }
+
+    @Test
+    public void countCardLogActions_countsEachDayBucket() {
+        List<CardLog> cardLogs = new ArrayList<>();
+        cardLogs.add(cardLog(1, OPEN_NOTIFICATION, mToday.minusDays(2)));
+        cardLogs.add(cardLog(1, DELETE_NOTIFICATION, mToday.minusDays(1)));
+        cardLogs.add(cardLog(1, DELETE_NOTIFICATION, mToday.minusDays(1)));
+        cardLogs.add(cardLog(1, OPEN_TEST_ANSWER, mToday));
+        cardLogs.add(cardLog(1, OPEN_TEST_ANSWER, mToday));
+        cardLogs.add(cardLog(1, OPEN_TEST_ANSWER, mToday));
+        // outside of the window
+        cardLogs.add(cardLog(1, OPEN_NOTIFICATION, mToday.minusDays(3)));
+        cardLogs.add(cardLog(2, OPEN_NOTIFICATION, mToday.minusDays(3)));
+        mCardLogDao.insertAndCount(cardLogs);
+
+        List<CardLogActionCount> result = countCardLogActions();
+        assertEquals(1, result.size());
+        CardLogActionCount actionCount = result.get(0);
+        assertEquals(1, actionCount.cardId);
+        assertEquals(1, actionCount.openNotification2Day);
+        assertEquals(0, actionCount.deleteNotification2Day);
+        assertEquals(0, actionCount.openTestAnswer2Day);
+        assertEquals(0, actionCount.openNotification1Day);
+        assertEquals(2, actionCount.deleteNotification1Day);
+        assertEquals(0, actionCount.openTestAnswer1Day);
+        assertEquals(0, actionCount.openNotificationToday);
+        assertEquals(0, actionCount.deleteNotificationToday);
+        assertEquals(3, actionCount.openTestAnswerToday);
+    }
+
+    @Test
+    public void trimCardLog_keepsLatestRows() {
+        for (int i = 0; i < 25; i++) {
+            mCardLogDao.insert(cardLog(1, OPEN_NOTIFICATION, mToday));
+        }
+        long maxId = count("SELECT MAX(id) FROM card_log");
+
+        mCardLogDao.trimCardLog(10);
+
+        assertEquals(10, count("SELECT COUNT(*) FROM card_log"));
+        assertEquals(maxId - 9, count("SELECT MIN(id) FROM card_log"));
+    }
+
+    @Test
+    public void insertAndCount_boundsRawLogButNotRollup() {
+        int total = CardLogDao.MAX_CARD_LOG + 20;
+        List<CardLog> cardLogs = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            cardLogs.add(cardLog(1, OPEN_NOTIFICATION, mToday));
+        }
+        mCardLogDao.insertAndCount(cardLogs);
+
+        assertEquals(CardLogDao.MAX_CARD_LOG, count("SELECT COUNT(*) FROM card_log"));
+        assertEquals(total, actionCount(1, mToday, OPEN_NOTIFICATION));
+    }
+
+    @Test
+    public void deleteCardLogsByCardIds_deletesRawAndRollup() {
+        List<Long> deletedCardIds = new ArrayList<>();
+        List<CardLog> cardLogs = new ArrayList<>();
+        for (long cardId = 1; cardId <= CardLogDao.DELETE_BATCH_SIZE + 10; cardId++) {
+            deletedCardIds.add(cardId);
+            cardLogs.add(cardLog(cardId, OPEN_NOTIFICATION, mToday));
+        }
+        cardLogs.add(cardLog(0, OPEN_NOTIFICATION, mToday));
+        mCardLogDao.insertAndCount(cardLogs);
+
+        mCardLogDao.deleteCardLogsByCardIds(deletedCardIds);
+
+        assertEquals(1, count("SELECT COUNT(*) FROM card_log"));
+        assertEquals(1, count("SELECT COUNT(*) FROM card_log_daily"));
+        assertTrue(actionCount(0, mToday, OPEN_NOTIFICATION) > 0);
+    }
+
+    private List<CardLogActionCount> countCardLogActions() {
+        return mCardLogDao.countCardLogActions(OPEN_NOTIFICATION, DELETE_NOTIFICATION, OPEN_TEST_ANSWER,
+                mToday.minusDays(2).toEpochDay(), mToday.minusDays(1).toEpochDay(), mToday.toEpochDay());
+    }
+
+    private long actionCount(long cardId, LocalDate date, int action) {
+        return count("SELECT action_count FROM card_log_daily WHERE card_id = " + cardId
+                + " AND epoch_day = " + date.toEpochDay() + " AND _action = " + action);
+    }
+
+    private long count(String query) {
+        try (Cursor cursor = mBotDatabase.query(query, null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    private static CardLog cardLog(long cardId, int action, LocalDate date) {
+        CardLog cardLog = new CardLog();
+        cardLog.cardId = cardId;
+        cardLog.action = action;
+        cardLog.createdDateTime = new Date(date.atTime(12, 0).atZone(ZoneId.systemDefault())
+                .toInstant().toEpochMilli());
+        return cardLog;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ *     Copyright (C) 2021-2026 Ruby Hartono
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package m.co.rh.id.a_flash_deck.bot.provider.component;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.work.WorkManager;
+import androidx.work.testing.WorkManagerTestInitHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import m.co.rh.id.a_flash_deck.base.entity.Deck;
+import m.co.rh.id.a_flash_deck.base.provider.notifier.DeckChangeNotifier;
+import m.co.rh.id.a_flash_deck.bot.provider.BotProviderModule;
+import m.co.rh.id.a_flash_deck.bot.room.BotDatabase;
+import m.co.rh.id.alogger.AndroidLogger;
+import m.co.rh.id.alogger.ILogger;
+import m.co.rh.id.aprovider.Provider;
+import m.co.rh.id.aprovider.ProviderModule;
+import m.co.rh.id.aprovider.ProviderRegistry;
+import m.co.rh.id.aprovider.ProviderValue;
+
+/**
+ * Write-behind buffer of card logs, see {@link BotAnalytics#FLUSH_SIZE} and {@link BotAnalytics#FLUSH_DELAY_MILLIS}
+ */
+@RunWith(AndroidJUnit4.class)
+public class BotAnalyticsTest {
+    private Context mAppContext;
+    private ExecutorService mExecutorService;
+    private ScheduledExecutorService mScheduledExecutorService;
+    private Provider mTestProvider;
+    private BotAnalytics mBotAnalytics;
+
+    @Before
+    public void beforeTest() {
+        mAppContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        WorkManagerTestInitHelper.initializeTestWorkManager(mAppContext);
+        mExecutorService = Executors.newSingleThreadExecutor();
+        mScheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+        mTestProvider = Provider.createProvider(mAppContext, new ProviderModule() {
+            @Override
+            public void provides(ProviderRegistry providerRegistry, Provider provider) {
+                providerRegistry.register(ExecutorService.class, () -> mExecutorService);
+                providerRegistry.register(ScheduledExecutorService.class, () -> mScheduledExecutorService);
+                providerRegistry.register(ILogger.class, () -> new AndroidLogger(ILogger.VERBOSE));
+                providerRegistry.register(WorkManager.class, () -> WorkManager.getInstance(mAppContext));
+                providerRegistry.register(DeckChangeNotifier.class, DeckChangeNotifier::new);
+                providerRegistry.registerModule(new BotProviderModule() {
+                    @NonNull
+                    @Override
+                    protected ProviderValue<BotDatabase> getDatabaseProviderValue(Context appContext) {
+                        return () -> Room.inMemoryDatabaseBuilder(appContext, BotDatabase.class).build();
+                    }
+                });
+            }
+
+            @Override
+            public void dispose(Provider provider) {
+
+            }
+        });
+        mBotAnalytics = mTestProvider.get(BotAnalytics.class);
+    }
+
+    @After
+    public void afterTest() {
+        mTestProvider.dispose();
+        mExecutorService.shutdownNow();
+        mScheduledExecutorService.shutdownNow();
+    }
+
+    @Test
+    public void track_writesOnceFlushSizeIsReached() throws Exception {
+        for (int i = 1; i < BotAnalytics.FLUSH_SIZE; i++) {
+            mBotAnalytics.trackOpenNotification(i);
+        }
+        awaitExecutor();
+        assertEquals(0, countCardLog());
+
+        mBotAnalytics.trackOpenNotification(BotAnalytics.FLUSH_SIZE);
+        awaitExecutor();
+        assertEquals(BotAnalytics.FLUSH_SIZE, countCardLog());
+        assertEquals(BotAnalytics.FLUSH_SIZE, countCardLogDaily());
+    }
+
+    @Test
+    public void track_writesAfterFlushDelay() throws Exception {
+        mBotAnalytics.trackOpenTestAnswer(1);
+        mBotAnalytics.trackDeleteNotification(1);
+        awaitExecutor();
+        assertEquals(0, countCardLog());
+
+        Thread.sleep(BotAnalytics.FLUSH_DELAY_MILLIS + 1_000);
+        awaitExecutor();
+        assertEquals(2, countCardLog());
+        assertEquals(2, countCardLogDaily());
+    }
+
+    @Test
+    public void track_dropsWhenBufferIsFull() throws Exception {
+        CountDownLatch blockExecutor = new CountDownLatch(1);
+        mExecutorService.execute(() -> {
+            try {
+                blockExecutor.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        for (int i = 0; i < BotAnalytics.MAX_PENDING_CARD_LOG + 10; i++) {
+            mBotAnalytics.trackOpenNotification(1);
+        }
+        assertEquals(10, mBotAnalytics.getDroppedCount());
+
+        blockExecutor.countDown();
+        awaitExecutor();
+        assertEquals(BotAnalytics.MAX_PENDING_CARD_LOG, countCardLog());
+        assertEquals(10, mBotAnalytics.getDroppedCount());
+    }
+
+    @Test
+    public void dispose_writesPendingCardLogs() throws Exception {
+        mBotAnalytics.trackOpenNotification(1);
+        mBotAnalytics.trackOpenNotification(2);
+        mBotAnalytics.trackOpenNotification(3);
+
+        mBotAnalytics.dispose(mAppContext);
+        awaitExecutor();
+        assertEquals(3, countCardLog());
+        assertEquals(0, mBotAnalytics.getDroppedCount());
+    }
+
+    @Test
+    public void dispose_countsPendingCardLogsAsDroppedWhenExecutorIsShutdown() throws Exception {
+        awaitExecutor();
+        mBotAnalytics.trackOpenNotification(1);
+        mBotAnalytics.trackOpenNotification(2);
+        mExecutorService.shutdown();
+
+        mBotAnalytics.dispose(mAppContext);
+        assertEquals(2, mBotAnalytics.getDroppedCount());
+    }
+
+    @Test
+    public void deckDeleted_dropsPendingCardLogsOfDeletedCards() throws Exception {
+        mBotAnalytics.trackOpenNotification(1);
+        mBotAnalytics.trackOpenNotification(2);
+        mBotAnalytics.trackOpenNotification(3);
+
+        mTestProvider.get(DeckChangeNotifier.class).deckDeleted(new Deck(), Arrays.asList(1L, 2L));
+        // deleted deck event is observed on the executor which then queues the delete
+        awaitExecutor();
+        awaitExecutor();
+        mBotAnalytics.dispose(mAppContext);
+        awaitExecutor();
+        assertEquals(1, countCardLog());
+        assertEquals(1, countCardLogDaily());
+    }
+
+    private void awaitExecutor() throws Exception {
+        mExecutorService.submit(() -> {
+        }).get();
+    }
+
+    private int countCardLog() {
+        return count("SELECT COUNT(*) FROM card_log");
+    }
+
+    private int countCardLogDaily() {
+        return count("SELECT SUM(action_count) FROM card_log_daily");
+    }
+
+    private int count(String query) {
+        try (Cursor cursor = mTestProvider.get(BotDatabase.class).query(query, null)) {
+            return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        }
+    }
+}
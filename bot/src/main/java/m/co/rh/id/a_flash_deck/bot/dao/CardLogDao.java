@@ -21,34 +21,109 @@ import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 
+import java.time.Instant;
+import java.time.ZoneId;
 import java.util.List;
 
 import m.co.rh.id.a_flash_deck.bot.entity.CardLog;
+import m.co.rh.id.a_flash_deck.bot.model.CardLogActionCount;
 
 @Dao
 public abstract class CardLogDao {
+    /**
+     * Raw card log is kept as a ring of this many latest rows, history lives in card_log_daily
+     */
+    public static final int MAX_CARD_LOG = 5_000;
+    public static final int DELETE_BATCH_SIZE = 500;
+
     @Insert
     public abstract long insert(CardLog cardLog);
 
     @Delete
     public abstract void delete(CardLog cardLog);
 
+    /**
+     * Insert raw logs and count them to the daily rollup of each card by local date,
+     * oldest raw log beyond {@link #MAX_CARD_LOG} is dropped
+     */
+    @Transaction
+    public void insertAndCount(List<CardLog> cardLogs) {
+        ZoneId zoneId = ZoneId.systemDefault();
+        for (CardLog cardLog : cardLogs) {
+            insert(cardLog);
+            long epochDay = Instant.ofEpochMilli(cardLog.createdDateTime.getTime()).atZone(zoneId).toLocalDate().toEpochDay();
+            insertCardLogDailyIfAbsent(cardLog.cardId, epochDay, cardLog.action);
+            incrementCardLogDaily(cardLog.cardId, epochDay, cardLog.action);
+        }
+        trimCardLog(MAX_CARD_LOG);
+    }
+
+    // UPSERT syntax needs SQLite 3.24 which is not available on older android
+    @Query("INSERT OR IGNORE INTO card_log_daily (card_id, epoch_day, _action, action_count) " +
+            "VALUES (:cardId, :epochDay, :action, 0)")
+    protected abstract void insertCardLogDailyIfAbsent(long cardId, long epochDay, int action);
+
+    @Query("UPDATE card_log_daily SET action_count = action_count + 1 " +
+            "WHERE card_id = :cardId AND epoch_day = :epochDay AND _action = :action")
+    protected abstract void incrementCardLogDaily(long cardId, long epochDay, int action);
+
+    @Transaction
+    public void deleteCardLogsByCardId(long cardId) {
+        deleteRawCardLogsByCardId(cardId);
+        deleteCardLogDailyByCardId(cardId);
+    }
+
     @Query("DELETE FROM card_log WHERE card_id = :cardId")
-    public abstract void deleteCardLogsByCardId(long cardId);
+    protected abstract void deleteRawCardLogsByCardId(long cardId);
+
+    @Query("DELETE FROM card_log_daily WHERE card_id = :cardId")
+    protected abstract void deleteCardLogDailyByCardId(long cardId);
 
-    @Query("DELETE FROM card_log")
-    public abstract void deleteAllCardLog();
+    /**
+     * Drop raw log beyond the latest {@code maxCount} rows
+     */
+    @Query("DELETE FROM card_log WHERE id <= (SELECT MAX(id) FROM card_log) - :maxCount")
+    public abstract void trimCardLog(int maxCount);
 
-    @Query("SELECT card_id FROM card_log WHERE created_date_time BETWEEN :createdFrom AND :createdTo")
-    public abstract List<Long> findCardLogCardIdByCreatedDateFromTo(long createdFrom, long createdTo);
+    @Query("DELETE FROM card_log_daily WHERE epoch_day < :epochDay")
+    public abstract void deleteCardLogDailyBefore(long epochDay);
 
-    @Query("SELECT COUNT(*) FROM card_log WHERE card_id = :cardId AND _action = :action AND created_date_time BETWEEN :createdFrom AND :createdTo")
-    public abstract int countCardLogByCardIdAndActionAndCreatedDateFromTo(long cardId, int action, long createdFrom, long createdTo);
+    /**
+     * Count actions per card from the daily rollup,
+     * cards without any action between 2 days ago and today are not returned
+     */
+    @Query("SELECT card_id, " +
+            "SUM(CASE WHEN _action = :openNotification AND epoch_day = :_2day THEN action_count ELSE 0 END) AS open_notification_2_day, " +
+            "SUM(CASE WHEN _action = :deleteNotification AND epoch_day = :_2day THEN action_count ELSE 0 END) AS delete_notification_2_day, " +
+            "SUM(CASE WHEN _action = :openTestAnswer AND epoch_day = :_2day THEN action_count ELSE 0 END) AS open_test_answer_2_day, " +
+            "SUM(CASE WHEN _action = :openNotification AND epoch_day = :_1day THEN action_count ELSE 0 END) AS open_notification_1_day, " +
+            "SUM(CASE WHEN _action = :deleteNotification AND epoch_day = :_1day THEN action_count ELSE 0 END) AS delete_notification_1_day, " +
+            "SUM(CASE WHEN _action = :openTestAnswer AND epoch_day = :_1day THEN action_count ELSE 0 END) AS open_test_answer_1_day, " +
+            "SUM(CASE WHEN _action = :openNotification AND epoch_day = :today THEN action_count ELSE 0 END) AS open_notification_today, " +
+            "SUM(CASE WHEN _action = :deleteNotification AND epoch_day = :today THEN action_count ELSE 0 END) AS delete_notification_today, " +
+            "SUM(CASE WHEN _action = :openTestAnswer AND epoch_day = :today THEN action_count ELSE 0 END) AS open_test_answer_today " +
+            "FROM card_log_daily WHERE epoch_day BETWEEN :_2day AND :today GROUP BY card_id")
+    public abstract List<CardLogActionCount> countCardLogActions(int openNotification, int deleteNotification, int openTestAnswer,
+                                                                 long _2day, long _1day, long today);
 
-    @Query("SELECT card_id FROM card_log")
-    public abstract List<Long> findAllCardLogCardIds();
+    /**
+     * Delete logs of the cards in chunks of {@link #DELETE_BATCH_SIZE} ids to stay within SQLite parameter limit
+     */
+    @Transaction
+    public void deleteCardLogsByCardIds(List<Long> cardIds) {
+        int size = cardIds.size();
+        for (int i = 0; i < size; i += DELETE_BATCH_SIZE) {
+            List<Long> batch = cardIds.subList(i, Math.min(size, i + DELETE_BATCH_SIZE));
+            deleteRawCardLogsByCardIds(batch);
+            deleteCardLogDailyByCardIds(batch);
+        }
+    }
 
     @Query("DELETE FROM card_log WHERE card_id IN (:cardIds)")
-    public abstract void deleteCardLogsByCardIds(List<Long> cardIds);
+    protected abstract void deleteRawCardLogsByCardIds(List<Long> cardIds);
+
+    @Query("DELETE FROM card_log_daily WHERE card_id IN (:cardIds)")
+    protected abstract void deleteCardLogDailyByCardIds(List<Long> cardIds);
 }
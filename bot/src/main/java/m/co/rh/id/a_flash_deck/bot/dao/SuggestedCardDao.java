@@ -20,6 +20,7 @@ package m.co.rh.id.a_flash_deck.bot.dao;
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 
 import java.util.List;
 
@@ -27,9 +28,25 @@ import m.co.rh.id.a_flash_deck.bot.entity.SuggestedCard;
 
 @Dao
 public abstract class SuggestedCardDao {
+    public static final int DELETE_BATCH_SIZE = 500;
+
     @Insert
     public abstract long insert(SuggestedCard suggestedCard);
 
+    @Insert
+    public abstract void insertAll(List<SuggestedCard> suggestedCards);
+
+    /**
+     * Replace all suggested cards in one transaction
+     */
+    @Transaction
+    public void replaceAllSuggestedCard(List<SuggestedCard> suggestedCards) {
+        deleteAllSuggestedCard();
+        if (!suggestedCards.isEmpty()) {
+            insertAll(suggestedCards);
+        }
+    }
+
     @Query("DELETE FROM suggested_card")
     public abstract void deleteAllSuggestedCard();
 
@@ -39,11 +56,19 @@ public abstract class SuggestedCardDao {
     @Query("DELETE FROM suggested_card WHERE card_id = :cardId")
     public abstract void deleteSuggestedCardByCardId(long cardId);
 
-    @Query("SELECT card_id FROM suggested_card")
-    public abstract List<Long> findAllSuggestedCardCardIds();
+    /**
+     * Delete in chunks of {@link #DELETE_BATCH_SIZE} ids to stay within SQLite parameter limit
+     */
+    @Transaction
+    public void deleteSuggestedCardByCardIds(List<Long> cardIds) {
+        int size = cardIds.size();
+        for (int i = 0; i < size; i += DELETE_BATCH_SIZE) {
+            deleteSuggestedCardByCardIdsBatch(cardIds.subList(i, Math.min(size, i + DELETE_BATCH_SIZE)));
+        }
+    }
 
     @Query("DELETE FROM suggested_card WHERE card_id IN (:cardIds)")
-    public abstract void deleteSuggestedCardByCardIds(List<Long> cardIds);
+    protected abstract void deleteSuggestedCardByCardIdsBatch(List<Long> cardIds);
 
     @Query("SELECT * FROM suggested_card")
     public abstract List<SuggestedCard> findAllSuggestedCards();
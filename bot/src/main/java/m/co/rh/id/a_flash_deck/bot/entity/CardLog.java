@@ -19,6 +19,7 @@ package m.co.rh.id.a_flash_deck.bot.entity;
 
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.room.TypeConverters;
 
@@ -26,7 +27,8 @@ import java.util.Date;
 
 import m.co.rh.id.a_flash_deck.base.room.converter.Converter;
 
-@Entity(tableName = "card_log")
+@Entity(tableName = "card_log",
+        indices = {@Index({"card_id", "_action", "created_date_time"})})
 public class CardLog {
     @PrimaryKey(autoGenerate = true)
     public Long id;
@@ -0,0 +1,43 @@
+/*
+ *     Copyright (C) 2021-2026 Ruby Hartono
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package m.co.rh.id.a_flash_deck.bot.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+/**
+ * Number of times an action was logged for a card on a day, updated in place on every tracked action
+ */
+@Entity(tableName = "card_log_daily",
+        primaryKeys = {"card_id", "epoch_day", "_action"})
+public class CardLogDaily {
+    @ColumnInfo(name = "card_id")
+    public long cardId;
+
+    /**
+     * Local date as days since 1970-01-01, see {@link java.time.LocalDate#toEpochDay()}
+     */
+    @ColumnInfo(name = "epoch_day")
+    public long epochDay;
+
+    @ColumnInfo(name = "_action")
+    public int action;
+
+    @ColumnInfo(name = "action_count")
+    public int actionCount;
+}
@@ -0,0 +1,49 @@
+/*
+ *     Copyright (C) 2021-2026 Ruby Hartono
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package m.co.rh.id.a_flash_deck.bot.model;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Number of logged actions of a card, per action for each of the last three days
+ */
+public class CardLogActionCount {
+    @ColumnInfo(name = "card_id")
+    public long cardId;
+
+    @ColumnInfo(name = "open_notification_2_day")
+    public int openNotification2Day;
+    @ColumnInfo(name = "delete_notification_2_day")
+    public int deleteNotification2Day;
+    @ColumnInfo(name = "open_test_answer_2_day")
+    public int openTestAnswer2Day;
+
+    @ColumnInfo(name = "open_notification_1_day")
+    public int openNotification1Day;
+    @ColumnInfo(name = "delete_notification_1_day")
+    public int deleteNotification1Day;
+    @ColumnInfo(name = "open_test_answer_1_day")
+    public int openTestAnswer1Day;
+
+    @ColumnInfo(name = "open_notification_today")
+    public int openNotificationToday;
+    @ColumnInfo(name = "delete_notification_today")
+    public int deleteNotificationToday;
+    @ColumnInfo(name = "open_test_answer_today")
+    public int openTestAnswerToday;
+}
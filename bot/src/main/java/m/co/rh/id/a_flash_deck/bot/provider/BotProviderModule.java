@@ -27,6 +27,7 @@ import m.co.rh.id.a_flash_deck.bot.dao.SuggestedCardDao;
 import m.co.rh.id.a_flash_deck.bot.provider.component.BotAnalytics;
 import m.co.rh.id.a_flash_deck.bot.provider.notifier.SuggestedCardChangeNotifier;
 import m.co.rh.id.a_flash_deck.bot.room.BotDatabase;
+import m.co.rh.id.a_flash_deck.bot.room.BotDbMigration;
 import m.co.rh.id.aprovider.Provider;
 import m.co.rh.id.aprovider.ProviderModule;
 import m.co.rh.id.aprovider.ProviderRegistry;
@@ -54,6 +55,7 @@ public class BotProviderModule implements ProviderModule {
         return () ->
                 Room.databaseBuilder(appContext,
                         BotDatabase.class, "a-flash-deck.bot.db")
+                        .addMigrations(BotDbMigration.getAllMigrations())
                         .build();
     }
 }
@@ -24,15 +24,22 @@ import androidx.work.PeriodicWorkRequest;
 import androidx.work.WorkManager;
 
 import java.util.ArrayList;
-import java.util.LinkedHashSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
-import m.co.rh.id.a_flash_deck.base.dao.DeckDao;
 import m.co.rh.id.a_flash_deck.base.provider.notifier.DeckChangeNotifier;
 import m.co.rh.id.a_flash_deck.bot.dao.CardLogDao;
 import m.co.rh.id.a_flash_deck.bot.dao.SuggestedCardDao;
@@ -40,6 +47,7 @@ import m.co.rh.id.a_flash_deck.bot.entity.CardLog;
 import m.co.rh.id.a_flash_deck.bot.provider.notifier.SuggestedCardChangeNotifier;
 import m.co.rh.id.a_flash_deck.bot.workmanager.BotAnalyzeWorker;
 import m.co.rh.id.a_flash_deck.bot.workmanager.BotLogCleanerWorker;
+import m.co.rh.id.alogger.ILogger;
 import m.co.rh.id.aprovider.Provider;
 import m.co.rh.id.aprovider.ProviderDisposable;
 
@@ -52,24 +60,49 @@ public class BotAnalytics implements ProviderDisposable {
     private static final String LOG_CLEANER_TAG = TAG + "_LOG_CLEANER_TAG";
     private static final String ANALYZE_TAG = TAG + "_ANALYZE_TAG";
 
+    /**
+     * Pending card logs are written once this many are buffered
+     */
+    public static final int FLUSH_SIZE = 50;
+    /**
+     * Pending card logs are written at most this long after the first one is buffered
+     */
+    public static final long FLUSH_DELAY_MILLIS = 5_000;
+    /**
+     * Buffer limit, further card logs are dropped until pending logs are written
+     */
+    public static final int MAX_PENDING_CARD_LOG = 1_000;
+
     private ExecutorService mExecutorService;
+    private ScheduledExecutorService mScheduledExecutorService;
+    private ILogger mLogger;
     private WorkManager mWorkManager;
     private CardLogDao mCardLogDao;
     private SuggestedCardDao mSuggestedCardDao;
     private SuggestedCardChangeNotifier mSuggestedCardChangeNotifier;
-    private DeckDao mDeckDao;
     private DeckChangeNotifier mDeckChangeNotifier;
     private CompositeDisposable mCompositeDisposable;
+    private final ConcurrentLinkedQueue<CardLog> mPendingCardLogs;
+    private final AtomicInteger mPendingCount;
+    private final AtomicBoolean mFlushScheduled;
+    private final AtomicLong mDroppedCount;
+    private final Object mFlushLock;
 
     public BotAnalytics(Provider provider) {
         mExecutorService = provider.get(ExecutorService.class);
+        mScheduledExecutorService = provider.get(ScheduledExecutorService.class);
+        mLogger = provider.get(ILogger.class);
         mWorkManager = provider.get(WorkManager.class);
         mCardLogDao = provider.get(CardLogDao.class);
         mSuggestedCardDao = provider.get(SuggestedCardDao.class);
         mSuggestedCardChangeNotifier = provider.get(SuggestedCardChangeNotifier.class);
-        mDeckDao = provider.get(DeckDao.class);
         mDeckChangeNotifier = provider.get(DeckChangeNotifier.class);
         mCompositeDisposable = new CompositeDisposable();
+        mPendingCardLogs = new ConcurrentLinkedQueue<>();
+        mPendingCount = new AtomicInteger();
+        mFlushScheduled = new AtomicBoolean(false);
+        mDroppedCount = new AtomicLong();
+        mFlushLock = new Object();
         init();
     }
 
@@ -78,28 +111,32 @@ public class BotAnalytics implements ProviderDisposable {
                 .observeOn(Schedulers.from(mExecutorService))
                 .subscribe(card -> {
                     Long cardId = card.id;
-                    mExecutorService.execute(() -> mCardLogDao.deleteCardLogsByCardId(cardId));
+                    mExecutorService.execute(() -> {
+                        synchronized (mFlushLock) {
+                            dropPendingCardLogs(Collections.singleton(cardId));
+                            mCardLogDao.deleteCardLogsByCardId(cardId);
+                        }
+                    });
                     mExecutorService.execute(() -> {
                         mSuggestedCardDao.deleteSuggestedCardByCardId(cardId);
                         mSuggestedCardChangeNotifier.reloadSuggestedCard();
                     });
                 }));
-        mCompositeDisposable.add(mDeckChangeNotifier.getDeletedDeckFlow()
+        mCompositeDisposable.add(mDeckChangeNotifier.getDeletedDeckEventFlow()
                 .observeOn(Schedulers.from(mExecutorService))
-                .subscribe(deck -> {
+                .subscribe(deleteDeckEvent -> {
+                    List<Long> cardIds = deleteDeckEvent.getDeletedCardIds();
+                    if (cardIds.isEmpty()) {
+                        return;
+                    }
                     mExecutorService.execute(() -> {
-                        List<Long> cardLogCardIds = mCardLogDao.findAllCardLogCardIds();
-                        List<Long> existingCardIds = mDeckDao.findCardIdsByCardIds(cardLogCardIds);
-                        Set<Long> removedCardIds = new LinkedHashSet<>(cardLogCardIds);
-                        removedCardIds.removeAll(existingCardIds);
-                        mCardLogDao.deleteCardLogsByCardIds(new ArrayList<>(removedCardIds));
+                        synchronized (mFlushLock) {
+                            dropPendingCardLogs(new HashSet<>(cardIds));
+                            mCardLogDao.deleteCardLogsByCardIds(cardIds);
+                        }
                     });
                     mExecutorService.execute(() -> {
-                        List<Long> suggestedCardIds = mSuggestedCardDao.findAllSuggestedCardCardIds();
-                        List<Long> existingCardIds = mDeckDao.findCardIdsByCardIds(suggestedCardIds);
-                        Set<Long> removedCardIds = new LinkedHashSet<>(suggestedCardIds);
-                        removedCardIds.removeAll(existingCardIds);
-                        mSuggestedCardDao.deleteSuggestedCardByCardIds(new ArrayList<>(removedCardIds));
+                        mSuggestedCardDao.deleteSuggestedCardByCardIds(cardIds);
                         mSuggestedCardChangeNotifier.reloadSuggestedCard();
                     });
                 }));
@@ -118,34 +155,91 @@ public class BotAnalytics implements ProviderDisposable {
     }
 
     public void trackOpenNotification(long cardId) {
-        mExecutorService.execute(() -> {
-            CardLog cardLog = new CardLog();
-            cardLog.action = ACTION_OPEN_NOTIFICATION;
-            cardLog.cardId = cardId;
-            mCardLogDao.insert(cardLog);
-        });
+        track(cardId, ACTION_OPEN_NOTIFICATION);
     }
 
     public void trackDeleteNotification(long cardId) {
-        mExecutorService.execute(() -> {
-            CardLog cardLog = new CardLog();
-            cardLog.action = ACTION_DELETE_NOTIFICATION;
-            cardLog.cardId = cardId;
-            mCardLogDao.insert(cardLog);
-        });
+        track(cardId, ACTION_DELETE_NOTIFICATION);
     }
 
     public void trackOpenTestAnswer(long cardId) {
-        mExecutorService.execute(() -> {
-            CardLog cardLog = new CardLog();
-            cardLog.action = ACTION_OPEN_TEST_ANSWER;
-            cardLog.cardId = cardId;
-            mCardLogDao.insert(cardLog);
-        });
+        track(cardId, ACTION_OPEN_TEST_ANSWER);
+    }
+
+    /**
+     * @return number of card logs dropped so far because the buffer was full or failed to be written
+     */
+    public long getDroppedCount() {
+        return mDroppedCount.get();
+    }
+
+    private void track(long cardId, int action) {
+        CardLog cardLog = new CardLog();
+        cardLog.action = action;
+        cardLog.cardId = cardId;
+        int pendingCount = mPendingCount.incrementAndGet();
+        if (pendingCount > MAX_PENDING_CARD_LOG) {
+            mPendingCount.decrementAndGet();
+            mLogger.d(TAG, "Card log buffer full, dropped " + mDroppedCount.incrementAndGet());
+            return;
+        }
+        mPendingCardLogs.add(cardLog);
+        if (pendingCount >= FLUSH_SIZE) {
+            mExecutorService.execute(this::flush);
+        } else if (mFlushScheduled.compareAndSet(false, true)) {
+            mScheduledExecutorService.schedule(() -> mExecutorService.execute(this::flush),
+                    FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Write all pending card logs in one transaction
+     */
+    private void flush() {
+        synchronized (mFlushLock) {
+            mFlushScheduled.set(false);
+            List<CardLog> cardLogs = new ArrayList<>();
+            CardLog cardLog;
+            while ((cardLog = mPendingCardLogs.poll()) != null) {
+                cardLogs.add(cardLog);
+                mPendingCount.decrementAndGet();
+            }
+            if (cardLogs.isEmpty()) {
+                return;
+            }
+            try {
+                mCardLogDao.insertAndCount(cardLogs);
+            } catch (Exception e) {
+                mDroppedCount.addAndGet(cardLogs.size());
+                mLogger.e(TAG, "Failed to write " + cardLogs.size() + " card logs", e);
+            }
+        }
+    }
+
+    /**
+     * Remove pending card logs of deleted cards so a later flush won't write orphan rows.
+     * Must be called while holding {@link #mFlushLock}
+     */
+    private void dropPendingCardLogs(Set<Long> cardIds) {
+        Iterator<CardLog> iterator = mPendingCardLogs.iterator();
+        while (iterator.hasNext()) {
+            if (cardIds.contains(iterator.next().cardId)) {
+                // only flush polls the queue and it holds the same lock
+                iterator.remove();
+                mPendingCount.decrementAndGet();
+            }
+        }
     }
 
     @Override
     public void dispose(Context context) {
         mCompositeDisposable.dispose();
+        try {
+            mExecutorService.execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            int pendingCount = mPendingCount.get();
+            mDroppedCount.addAndGet(pendingCount);
+            mLogger.d(TAG, "Executor already shutdown, dropped " + pendingCount + " pending card logs");
+        }
     }
 }
@@ -23,11 +23,12 @@ import androidx.room.RoomDatabase;
 import m.co.rh.id.a_flash_deck.bot.dao.CardLogDao;
 import m.co.rh.id.a_flash_deck.bot.dao.SuggestedCardDao;
 import m.co.rh.id.a_flash_deck.bot.entity.CardLog;
+import m.co.rh.id.a_flash_deck.bot.entity.CardLogDaily;
 import m.co.rh.id.a_flash_deck.bot.entity.SuggestedCard;
 
 
-@Database(entities = {CardLog.class, SuggestedCard.class},
-        version = 1)
+@Database(entities = {CardLog.class, CardLogDaily.class, SuggestedCard.class},
+        version = 3)
 public abstract class BotDatabase extends RoomDatabase {
     public abstract CardLogDao cardLogDao();
 
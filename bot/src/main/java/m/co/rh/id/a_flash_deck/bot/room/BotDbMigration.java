@@ -0,0 +1,52 @@
+/*
+ *     Copyright (C) 2021-2026 Ruby Hartono
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package m.co.rh.id.a_flash_deck.bot.room;
+
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+public class BotDbMigration {
+    public static Migration[] getAllMigrations() {
+        return new Migration[]{MIGRATION_1_2, MIGRATION_2_3};
+    }
+
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // card log aggregate by card, action and date
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_card_log_card_id__action_created_date_time` " +
+                    "ON `card_log` (`card_id`, `_action`, `created_date_time`)");
+        }
+    };
+
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `card_log_daily` (`card_id` INTEGER NOT NULL, " +
+                    "`epoch_day` INTEGER NOT NULL, `_action` INTEGER NOT NULL, `action_count` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`card_id`, `epoch_day`, `_action`))");
+            // roll up existing raw log by local date
+            database.execSQL("INSERT INTO `card_log_daily` (`card_id`, `epoch_day`, `_action`, `action_count`) " +
+                    "SELECT `card_id`, " +
+                    "CAST(julianday(date(`created_date_time` / 1000, 'unixepoch', 'localtime')) - 2440587.5 AS INTEGER), " +
+                    "`_action`, COUNT(*) FROM `card_log` " +
+                    "WHERE `card_id` IS NOT NULL AND `_action` IS NOT NULL AND `created_date_time` IS NOT NULL " +
+                    "GROUP BY 1, 2, 3");
+        }
+    };
+}
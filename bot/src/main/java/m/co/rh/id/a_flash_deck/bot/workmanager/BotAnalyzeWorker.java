@@ -24,14 +24,10 @@ import androidx.work.Worker;
 import androidx.work.WorkerParameters;
 
 import java.time.LocalDate;
-import java.time.OffsetTime;
-import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.LinkedHashSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
 
 import m.co.rh.id.a_flash_deck.base.BaseApplication;
 import m.co.rh.id.a_flash_deck.base.component.IAppNotificationHandler;
@@ -40,9 +36,9 @@ import m.co.rh.id.a_flash_deck.bot.R;
 import m.co.rh.id.a_flash_deck.bot.dao.CardLogDao;
 import m.co.rh.id.a_flash_deck.bot.dao.SuggestedCardDao;
 import m.co.rh.id.a_flash_deck.bot.entity.SuggestedCard;
+import m.co.rh.id.a_flash_deck.bot.model.CardLogActionCount;
 import m.co.rh.id.a_flash_deck.bot.provider.component.BotAnalytics;
 import m.co.rh.id.a_flash_deck.bot.provider.notifier.SuggestedCardChangeNotifier;
-import m.co.rh.id.alogger.ILogger;
 import m.co.rh.id.aprovider.Provider;
 
 public class BotAnalyzeWorker extends Worker {
@@ -56,95 +52,33 @@ public class BotAnalyzeWorker extends Worker {
     @Override
     public Result doWork() {
         Provider provider = BaseApplication.of(getApplicationContext()).getProvider();
-        ExecutorService executorService = provider.get(ExecutorService.class);
-        ILogger logger = provider.get(ILogger.class);
         IAppNotificationHandler appNotificationHandler = provider.get(IAppNotificationHandler.class);
         SuggestedCardChangeNotifier suggestedCardChangeNotifier = provider.get(SuggestedCardChangeNotifier.class);
         DeckDao deckDao = provider.get(DeckDao.class);
         CardLogDao cardLogDao = provider.get(CardLogDao.class);
         SuggestedCardDao suggestedCardDao = provider.get(SuggestedCardDao.class);
-        int countCards = suggestedCardDao.countSuggestedCard();
-        if (countCards > 0) {
-            suggestedCardDao.deleteAllSuggestedCard();
-        }
         LocalDate today = LocalDate.now();
-        LocalDate _1dayBefore = today.minusDays(1);
-        LocalDate _2dayBefore = today.minusDays(2);
-        long _2dayCreatedFrom = _2dayBefore.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
-        long _2dayCreatedTo = _2dayBefore.atTime(OffsetTime.MAX).toInstant().toEpochMilli();
-        long _1dayCreatedFrom = _1dayBefore.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
-        long _1dayCreatedTo = _1dayBefore.atTime(OffsetTime.MAX).toInstant().toEpochMilli();
-        long todayCreatedFrom = today.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
-        long todayCreatedTo = today.atTime(OffsetTime.now()).toInstant().toEpochMilli();
-        List<Long> cardIds = cardLogDao.findCardLogCardIdByCreatedDateFromTo(_2dayCreatedFrom, todayCreatedTo);
-        // check if the card actually still exist
-        List<Long> existingCardIds = deckDao.findCardIdsByCardIds(cardIds);
-        Set<Long> selectedCardIds = new LinkedHashSet<>(existingCardIds);
-        List<Future<CardIdScore>> cardFutureList = new ArrayList<>();
-        for (Long cardId : selectedCardIds) {
-            cardFutureList.add(executorService.submit(() -> {
-                int count2DayOpenNotification = cardLogDao.countCardLogByCardIdAndActionAndCreatedDateFromTo(cardId, BotAnalytics.ACTION_OPEN_NOTIFICATION, _2dayCreatedFrom, _2dayCreatedTo);
-                int count2DayDeleteNotification = cardLogDao.countCardLogByCardIdAndActionAndCreatedDateFromTo(cardId, BotAnalytics.ACTION_DELETE_NOTIFICATION, _2dayCreatedFrom, _2dayCreatedTo);
-                int count2DayOpenTestAnswer = cardLogDao.countCardLogByCardIdAndActionAndCreatedDateFromTo(cardId, BotAnalytics.ACTION_OPEN_TEST_ANSWER, _2dayCreatedFrom, _2dayCreatedTo);
-                int count1DayOpenNotification = cardLogDao.countCardLogByCardIdAndActionAndCreatedDateFromTo(cardId, BotAnalytics.ACTION_OPEN_NOTIFICATION, _1dayCreatedFrom, _1dayCreatedTo);
-                int count1DayDeleteNotification = cardLogDao.countCardLogByCardIdAndActionAndCreatedDateFromTo(cardId, BotAnalytics.ACTION_DELETE_NOTIFICATION, _1dayCreatedFrom, _1dayCreatedTo);
-                int count1DayOpenTestAnswer = cardLogDao.countCardLogByCardIdAndActionAndCreatedDateFromTo(cardId, BotAnalytics.ACTION_OPEN_TEST_ANSWER, _1dayCreatedFrom, _1dayCreatedTo);
-                int countTodayOpenNotification = cardLogDao.countCardLogByCardIdAndActionAndCreatedDateFromTo(cardId, BotAnalytics.ACTION_OPEN_NOTIFICATION, todayCreatedFrom, todayCreatedTo);
-                int countTodayDeleteNotification = cardLogDao.countCardLogByCardIdAndActionAndCreatedDateFromTo(cardId, BotAnalytics.ACTION_DELETE_NOTIFICATION, todayCreatedFrom, todayCreatedTo);
-                int countTodayOpenTestAnswer = cardLogDao.countCardLogByCardIdAndActionAndCreatedDateFromTo(cardId, BotAnalytics.ACTION_OPEN_TEST_ANSWER, todayCreatedFrom, todayCreatedTo);
-                int score = 0;
-                if (count2DayOpenNotification > 0 && count2DayOpenNotification <= 3) {
-                    score += 3;
-                }
-                if (count2DayDeleteNotification > 1) {
-                    score -= 1;
-                }
-                if (count2DayOpenTestAnswer > 0) {
-                    score += 3;
-                }
-
-                if (count1DayOpenNotification > 0 && count1DayOpenNotification <= 3) {
-                    score += 2;
-                }
-                if (count1DayDeleteNotification > 1) {
-                    score -= 1;
-                }
-                if (count1DayOpenTestAnswer > 0) {
-                    score += 2;
-                }
-
-                if (countTodayOpenNotification > 0 && countTodayOpenNotification <= 3) {
-                    score += 1;
-                }
-                if (countTodayDeleteNotification > 1) {
-                    score -= 1;
-                }
-                if (countTodayOpenTestAnswer > 0) {
-                    score += 1;
-                }
-                CardIdScore cardIdScore = new CardIdScore();
-                cardIdScore.cardId = cardId;
-                cardIdScore.score = score;
-                return cardIdScore;
-            }));
+        List<CardLogActionCount> actionCounts = cardLogDao.countCardLogActions(
+                BotAnalytics.ACTION_OPEN_NOTIFICATION, BotAnalytics.ACTION_DELETE_NOTIFICATION,
+                BotAnalytics.ACTION_OPEN_TEST_ANSWER,
+                today.minusDays(2).toEpochDay(), today.minusDays(1).toEpochDay(), today.toEpochDay());
+        List<Long> cardIds = new ArrayList<>(actionCounts.size());
+        for (CardLogActionCount actionCount : actionCounts) {
+            cardIds.add(actionCount.cardId);
         }
-        int size = cardFutureList.size();
-        for (int i = 0; i < size; i++) {
-            Future<CardIdScore> cardIdScoreFuture = cardFutureList.get(i);
-            try {
-                CardIdScore cardIdScore = cardIdScoreFuture.get();
-                if (cardIdScore.score >= 3) {
-                    SuggestedCard suggestedCard = new SuggestedCard();
-                    suggestedCard.cardId = cardIdScore.cardId;
-                    suggestedCardDao.insert(suggestedCard);
-                }
-            } catch (Exception e) {
-                logger.d(TAG, "Failed to process some Card ID");
+        // check if the card actually still exist
+        Set<Long> existingCardIds = new HashSet<>(deckDao.findCardIdsByCardIds(cardIds));
+        List<SuggestedCard> suggestedCards = new ArrayList<>();
+        for (CardLogActionCount actionCount : actionCounts) {
+            if (existingCardIds.contains(actionCount.cardId) && score(actionCount) >= 3) {
+                SuggestedCard suggestedCard = new SuggestedCard();
+                suggestedCard.cardId = actionCount.cardId;
+                suggestedCards.add(suggestedCard);
             }
         }
+        suggestedCardDao.replaceAllSuggestedCard(suggestedCards);
         suggestedCardChangeNotifier.reloadSuggestedCard();
-        countCards = suggestedCardDao.countSuggestedCard();
-        if (countCards > 0) {
+        if (!suggestedCards.isEmpty()) {
             Context context = getApplicationContext();
             appNotificationHandler.postGeneralMessage(context.getString(R.string.flash_bot),
                     context.getString(R.string.flash_bot_message));
@@ -152,8 +86,37 @@ public class BotAnalyzeWorker extends Worker {
         return Result.success();
     }
 
-    private static class CardIdScore {
-        Long cardId;
-        int score;
+    private static int score(CardLogActionCount actionCount) {
+        int score = 0;
+        if (actionCount.openNotification2Day > 0 && actionCount.openNotification2Day <= 3) {
+            score += 3;
+        }
+        if (actionCount.deleteNotification2Day > 1) {
+            score -= 1;
+        }
+        if (actionCount.openTestAnswer2Day > 0) {
+            score += 3;
+        }
+
+        if (actionCount.openNotification1Day > 0 && actionCount.openNotification1Day <= 3) {
+            score += 2;
+        }
+        if (actionCount.deleteNotification1Day > 1) {
+            score -= 1;
+        }
+        if (actionCount.openTestAnswer1Day > 0) {
+            score += 2;
+        }
+
+        if (actionCount.openNotificationToday > 0 && actionCount.openNotificationToday <= 3) {
+            score += 1;
+        }
+        if (actionCount.deleteNotificationToday > 1) {
+            score -= 1;
+        }
+        if (actionCount.openTestAnswerToday > 0) {
+            score += 1;
+        }
+        return score;
     }
 }
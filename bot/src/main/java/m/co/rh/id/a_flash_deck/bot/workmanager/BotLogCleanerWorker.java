@@ -23,11 +23,18 @@ import androidx.annotation.NonNull;
 import androidx.work.Worker;
 import androidx.work.WorkerParameters;
 
+import java.time.LocalDate;
+
 import m.co.rh.id.a_flash_deck.base.BaseApplication;
 import m.co.rh.id.a_flash_deck.bot.dao.CardLogDao;
 import m.co.rh.id.aprovider.Provider;
 
+/**
+ * Drop daily card log rollup older than {@link #RETENTION_DAYS}
+ */
 public class BotLogCleanerWorker extends Worker {
+    public static final int RETENTION_DAYS = 365;
+
     public BotLogCleanerWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
         super(context, workerParams);
     }
@@ -37,7 +44,8 @@ public class BotLogCleanerWorker extends Worker {
     public Result doWork() {
         Provider provider = BaseApplication.of(getApplicationContext()).getProvider();
         CardLogDao cardLogDao = provider.get(CardLogDao.class);
-        cardLogDao.deleteAllCardLog();
+        cardLogDao.deleteCardLogDailyBefore(LocalDate.now().minusDays(RETENTION_DAYS).toEpochDay());
+        cardLogDao.trimCardLog(CardLogDao.MAX_CARD_LOG);
         return Result.success();
     }
 }
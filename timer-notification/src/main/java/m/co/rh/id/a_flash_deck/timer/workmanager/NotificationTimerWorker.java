@@ -29,15 +29,15 @@ import org.json.JSONException;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Random;
 
 import m.co.rh.id.a_flash_deck.base.BaseApplication;
 import m.co.rh.id.a_flash_deck.base.component.AppSharedPreferences;
+import m.co.rh.id.a_flash_deck.base.component.CardSampler;
 import m.co.rh.id.a_flash_deck.base.component.IAppNotificationHandler;
 import m.co.rh.id.a_flash_deck.base.constants.WorkManagerKeys;
-import m.co.rh.id.a_flash_deck.base.dao.DeckDao;
 import m.co.rh.id.a_flash_deck.base.dao.NotificationTimerDao;
 import m.co.rh.id.a_flash_deck.base.entity.Card;
 import m.co.rh.id.a_flash_deck.base.entity.NotificationTimer;
@@ -95,52 +95,28 @@ public class NotificationTimerWorker extends Worker {
             for (int i = 0; i < size; i++) {
                 deckIds.add(jsonArray.getLong(i));
             }
-            List<Card> cards = provider.get(DeckDao.class).findCardByDeckIds(deckIds);
-            if (cards.isEmpty()) {
+            CardSampler cardSampler = provider.get(CardSampler.class);
+            int[] cardCounts = cardSampler.countCardsPerDeck(deckIds);
+            int cardCount = CardSampler.countCards(cardCounts);
+            if (cardCount == 0) {
                 iLogger.d(TAG, "cards is empty");
                 return Result.success();
             }
-            Collections.shuffle(cards);
-            Card selectedCard = null;
-            if (notificationTimer.displayedCardIds == null) {
-                selectedCard = cards.get(0);
-                JSONArray displayedCardIdsJsonInput = new JSONArray();
-                displayedCardIdsJsonInput.put(selectedCard.id);
-                notificationTimer.displayedCardIds = displayedCardIdsJsonInput.toString();
-                notificationTimer.currentCardId = selectedCard.id;
-            } else {
-                JSONArray displayedCardIdsJson = new JSONArray(notificationTimer.displayedCardIds);
-                int displayedCardIdsSize = displayedCardIdsJson.length();
-                List<Long> displayedCardIds = new ArrayList<>();
-                for (int i = 0; i < displayedCardIdsSize; i++) {
-                    displayedCardIds.add(displayedCardIdsJson.getLong(i));
-                }
-                List<Long> allCardIds = new ArrayList<>();
-                for (Card card : cards) {
-                    allCardIds.add(card.id);
-                }
-                allCardIds.removeAll(displayedCardIds);
-                if (allCardIds.isEmpty()) {
-                    selectedCard = cards.get(0);
-                    JSONArray displayedCardIdsJsonInput = new JSONArray();
-                    displayedCardIdsJsonInput.put(selectedCard.id);
-                    notificationTimer.displayedCardIds = displayedCardIdsJsonInput.toString();
-                    notificationTimer.currentCardId = selectedCard.id;
-                } else {
-                    Collections.shuffle(allCardIds);
-                    Long cardId = allCardIds.get(0);
-                    displayedCardIdsJson.put(cardId);
-                    notificationTimer.displayedCardIds = displayedCardIdsJson.toString();
-                    notificationTimer.currentCardId = cardId;
-
-                    for (Card card : cards) {
-                        if (card.id.equals(cardId)) {
-                            selectedCard = card;
-                            break;
-                        }
-                    }
-                }
+            // every card is shown once per shuffle, new shuffle starts after the last card
+            int position = notificationTimer.shufflePosition;
+            if (position <= 0 || position >= cardCount) {
+                notificationTimer.shuffleSeed = new Random().nextLong();
+                position = 0;
+            }
+            Card selectedCard = cardSampler.shuffledCard(deckIds, cardCounts,
+                    notificationTimer.shuffleSeed, position);
+            if (selectedCard == null) {
+                iLogger.d(TAG, "cards changed while selecting card");
+                return Result.success();
             }
+            notificationTimer.shufflePosition = position + 1;
+            notificationTimer.displayedCardIds = null;
+            notificationTimer.currentCardId = selectedCard.id;
             notificationTimerDao.update(notificationTimer);
             provider.get(IAppNotificationHandler.class)
                     .postNotificationTimer(notificationTimer, selectedCard);